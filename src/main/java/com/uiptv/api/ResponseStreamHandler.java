@@ -0,0 +1,8 @@
+package com.uiptv.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ResponseStreamHandler<T> {
+    T onResponse(InputStream responseBody) throws IOException;
+}
@@ -5,7 +5,6 @@ import com.uiptv.util.AccountType;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -32,10 +31,12 @@ public class AccountDb extends BaseDb {
     }
 
     @Override
-    Account populate(ResultSet resultSet) {
-        Account account = new Account(nullSafeString(resultSet, "accountName"), nullSafeString(resultSet, "username"), nullSafeString(resultSet, "password"), nullSafeString(resultSet, "url"), nullSafeString(resultSet, "macAddress"),nullSafeString(resultSet, "macAddressList"), nullSafeString(resultSet, "serialNumber"), nullSafeString(resultSet, "deviceId1"), nullSafeString(resultSet, "deviceId2"), nullSafeString(resultSet, "signature"), isNotBlank(nullSafeString(resultSet, "type")) ? AccountType.valueOf(nullSafeString(resultSet, "type")) : AccountType.STALKER_PORTAL, nullSafeString(resultSet, "epg"), nullSafeString(resultSet, "m3u8Path"), safeBoolean(resultSet, "pauseCaching"), safeBoolean(resultSet, "pinToTop"));
-        account.setDbId(nullSafeString(resultSet, "id"));
-        account.setServerPortalUrl(nullSafeString(resultSet, "serverPortalUrl"));
+    Account populate(Row row) {
+        Account account = new Account(row.getString("accountName"), row.getString("username"), row.getString("password"), row.getString("url"), row.getString("macAddress"),row.getString("macAddressList"), row.getString("serialNumber"), row.getString("deviceId1"), row.getString("deviceId2"), row.getString("signature"), isNotBlank(row.getString("type")) ? AccountType.valueOf(row.getString("type")) : AccountType.STALKER_PORTAL, row.getString("epg"), row.getString("m3u8Path"), row.getBoolean("pauseCaching"), row.getBoolean("pinToTop"));
+        account.setDbId(row.getString("id"));
+        account.setServerPortalUrl(row.getString("serverPortalUrl"));
+        account.setPageFetchConcurrency(row.getInt("pageFetchConcurrency"));
+        account.setDisableCompression(row.getBoolean("disableCompression"));
         return account;
     }
 
@@ -73,9 +74,11 @@ public class AccountDb extends BaseDb {
             statement.setString(14, account.getServerPortalUrl());
             statement.setString(15, account.isPauseCaching() ? "1" : "0");
             statement.setString(16, account.isPinToTop() ? "1" : "0");
+            statement.setInt(17, account.getPageFetchConcurrency());
+            statement.setString(18, account.isDisableCompression() ? "1" : "0");
 
             if (accountExist) {
-                statement.setInt(17, Integer.valueOf(dbAccount.getDbId()));
+                statement.setInt(19, Integer.valueOf(dbAccount.getDbId()));
             }
             statement.execute();
         } catch (SQLException e) {
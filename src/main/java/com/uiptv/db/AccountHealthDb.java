@@ -0,0 +1,90 @@
+package com.uiptv.db;
+
+import com.uiptv.model.AccountHealth;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.uiptv.db.DatabaseUtils.DbTable.ACCOUNT_HEALTH_TABLE;
+import static com.uiptv.db.DatabaseUtils.insertTableSql;
+import static com.uiptv.db.SQLConnection.connect;
+import static com.uiptv.util.StringUtils.isNotBlank;
+
+public class AccountHealthDb extends BaseDb {
+    private static AccountHealthDb instance;
+
+
+    public static synchronized AccountHealthDb get() {
+        if (instance == null) {
+            instance = new AccountHealthDb();
+        }
+        return instance;
+    }
+
+    public AccountHealthDb() {
+        super(ACCOUNT_HEALTH_TABLE);
+    }
+
+    public Map<String, AccountHealth> getHealthByAccountName() {
+        Map<String, AccountHealth> health = new LinkedHashMap<>();
+        super.<AccountHealth>getAll().forEach(h -> health.put(h.getAccountName(), h));
+        return health;
+    }
+
+    public AccountHealth getHealth(String accountName) {
+        List<AccountHealth> health = getAll(" where accountName=?", new String[]{accountName});
+        return (health != null && !health.isEmpty()) ? health.get(0) : null;
+    }
+
+    /**
+     * Replaces the account's row in one transaction, so a reader never finds it missing between the delete and
+     * the insert.
+     */
+    public void save(AccountHealth health) {
+        inTransaction(conn -> {
+            delete(conn, health.getAccountName());
+            try (PreparedStatement statement = conn.prepareStatement(insertTableSql(ACCOUNT_HEALTH_TABLE))) {
+                statement.setString(1, health.getAccountName());
+                statement.setString(2, health.getStatus().name());
+                statement.setLong(3, health.getLatencyMillis());
+                statement.setLong(4, health.getLastChecked());
+                statement.setLong(5, health.getLastSuccess());
+                statement.setString(6, health.getMessage());
+                statement.execute();
+            }
+        }, "Unable to save account health");
+    }
+
+    public void deleteByAccountName(String accountName) {
+        try (Connection conn = connect()) {
+            delete(conn, accountName);
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to execute delete query");
+        }
+    }
+
+    private static void delete(Connection conn, String accountName) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement("DELETE FROM " + ACCOUNT_HEALTH_TABLE.getTableName() + " where accountName=?")) {
+            statement.setString(1, accountName);
+            statement.execute();
+        }
+    }
+
+    @Override
+    AccountHealth populate(Row row) {
+        String status = row.getString("status");
+        AccountHealth health = new AccountHealth(
+                row.getString("accountName"),
+                isNotBlank(status) ? AccountHealth.Status.valueOf(status) : AccountHealth.Status.UNKNOWN,
+                row.getLong("latencyMillis"),
+                row.getLong("lastChecked"),
+                row.getLong("lastSuccess"),
+                row.getString("message"));
+        health.setDbId(row.getString("id"));
+        return health;
+    }
+}
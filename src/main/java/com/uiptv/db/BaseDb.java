@@ -7,14 +7,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.uiptv.db.DatabaseUtils.*;
 import static com.uiptv.db.SQLConnection.connect;
+import static com.uiptv.db.SQLConnection.connectReader;
 import static com.uiptv.util.StringUtils.SPACE;
-import static com.uiptv.util.StringUtils.isBlank;
 
 public abstract class BaseDb {
     private DatabaseUtils.DbTable table;
@@ -23,25 +21,19 @@ public abstract class BaseDb {
         this.table = table;
     }
 
-    abstract <T extends JsonCompliant> T populate(ResultSet resultSet);
+    abstract <T extends JsonCompliant> T populate(Row row);
 
     public <T extends JsonCompliant> List<T> getAll(String extendedSql, String[] parameters) {
         ArrayList<T> t = new ArrayList<>();
         String sql = selectAllSql(table) + SPACE + extendedSql;
-        try (Connection conn = connect(); PreparedStatement statement = conn.prepareStatement(sql)) {
-            AtomicInteger i = new AtomicInteger(1);
-            Arrays.stream(parameters).forEach(s -> {
-                try {
-                    statement.setString(Integer.valueOf(i.getAndIncrement()), s);
-                } catch (SQLException e) {
-                    throw new RuntimeException(e);
+        try (Connection conn = connectReader(); PreparedStatement statement = conn.prepareStatement(sql)) {
+            setParameters(statement, parameters);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                Row row = new Row(resultSet);
+                while (resultSet.next()) {
+                    t.add(populate(row));
                 }
-            });
-            ResultSet resultSet = statement.executeQuery();
-            while (resultSet.next()) {
-                t.add(populate(resultSet));
             }
-            resultSet.close();
         } catch (SQLException e) {
             throw new RuntimeException("Unable to execute query");
         }
@@ -58,12 +50,12 @@ public abstract class BaseDb {
 
     public <T extends JsonCompliant> T getById(String id, String extendedSql) {
         T t = null;
-        try (Connection conn = connect(); PreparedStatement statement = conn.prepareStatement(selectByIdSql(table, id) + extendedSql)) {
-            ResultSet resultSet = statement.executeQuery();
-            if (resultSet.next()) {
-                t = populate(resultSet);
+        try (Connection conn = connectReader(); PreparedStatement statement = conn.prepareStatement(selectByIdSql(table, id) + extendedSql)) {
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    t = populate(new Row(resultSet));
+                }
             }
-            resultSet.close();
         } catch (SQLException e) {
             throw new RuntimeException("Unable to execute query");
         }
@@ -79,28 +71,37 @@ public abstract class BaseDb {
     }
 
 
-    public String nullSafeString(ResultSet resultSet, String column) {
-        try {
-            return resultSet.getString(column);
+    /**
+     * Runs the work on the writer connection as one transaction: it commits when the work returns and rolls
+     * back when it throws, so readers see either the old rows or the new ones, never a mix.
+     */
+    static void inTransaction(Transactional work, String errorMessage) {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try {
+                work.run(conn);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            return null;
+            throw new RuntimeException(errorMessage);
         }
     }
 
-    public static int safeInteger(ResultSet resultSet, String column) {
-        try {
-            return isBlank(resultSet.getString(column)) ? 0 : Integer.parseInt(resultSet.getString(column));
-        } catch (SQLException e) {
-            return 0;
-        }
+    interface Transactional {
+        void run(Connection conn) throws SQLException;
     }
 
-    public static boolean safeBoolean(ResultSet resultSet, String column) {
-        try {
-            return (Integer.parseInt(resultSet.getString(column)) > 0);
-        } catch (SQLException ignored) {
+    /**
+     * Binds the parameters to the statement's placeholders in order, starting at the first.
+     */
+    static void setParameters(PreparedStatement statement, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setObject(i + 1, parameters[i]);
         }
-        return false;
     }
-
 }
@@ -4,7 +4,6 @@ import com.uiptv.model.Bookmark;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -75,15 +74,15 @@ public class BookmarkDb extends BaseDb {
     }
 
     @Override
-    Bookmark populate(ResultSet resultSet) {
+    Bookmark populate(Row row) {
         Bookmark bookmark = new Bookmark(
-                nullSafeString(resultSet, "accountName"),
-                nullSafeString(resultSet, "categoryTitle"),
-                nullSafeString(resultSet, "channelId"),
-                nullSafeString(resultSet, "channelName"),
-                nullSafeString(resultSet, "cmd"),
-                nullSafeString(resultSet, "serverPortalUrl"));
-        bookmark.setDbId(nullSafeString(resultSet, "id"));
+                row.getString("accountName"),
+                row.getString("categoryTitle"),
+                row.getString("channelId"),
+                row.getString("channelName"),
+                row.getString("cmd"),
+                row.getString("serverPortalUrl"));
+        bookmark.setDbId(row.getString("id"));
         return bookmark;
     }
 }
@@ -2,14 +2,18 @@ package com.uiptv.db;
 
 import com.uiptv.model.Account;
 import com.uiptv.model.Category;
+import com.uiptv.model.Channel;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static com.uiptv.db.DatabaseUtils.DbTable.CATEGORY_TABLE;
+import static com.uiptv.db.DatabaseUtils.DbTable.CHANNEL_TABLE;
 import static com.uiptv.db.DatabaseUtils.insertTableSql;
 import static com.uiptv.db.SQLConnection.connect;
 
@@ -40,41 +44,102 @@ public class CategoryDb extends BaseDb {
         return getById(id, " AND accountType='" + account.getAction().name() + "' AND accountId='" + account.getDbId() + "'");
     }
 
+    /**
+     * Replaces the account's categories for its current action in one transaction with a single batch insert, so
+     * a request arriving mid-refresh still sees the previous list. Channels cached under the replaced
+     * categories go with them.
+     */
     public void saveAll(List<Category> categories, Account account) {
-        deleteByAccount(account);
-        categories.forEach(c -> insert(c, account));
+        inTransaction(conn -> replaceAll(conn, categories, account), "Unable to save categories");
     }
 
-    public void deleteByAccount(Account account) {
-        String sql = "DELETE FROM " + CATEGORY_TABLE.getTableName() + " WHERE accountId=? AND accountType=?";
-        try (Connection conn = connect(); PreparedStatement statement = conn.prepareStatement(sql)) {
+    /**
+     * Replaces the account's categories and the channels of each, keyed by category title, in one transaction.
+     * Categories without an entry in the map are saved without channels and load them on first open.
+     */
+    public void saveAll(List<Category> categories, Map<String, List<Channel>> channelsByTitle, Account account) {
+        inTransaction(conn -> {
+            replaceAll(conn, categories, account);
+            Map<String, String> dbIds = dbIdsByTitle(conn, account);
+            for (Map.Entry<String, List<Channel>> channels : channelsByTitle.entrySet()) {
+                String dbId = dbIds.get(channels.getKey());
+                if (dbId != null) ChannelDb.replaceAll(conn, channels.getValue(), dbId);
+            }
+        }, "Unable to save categories and channels");
+    }
+
+    private static void replaceAll(Connection conn, List<Category> categories, Account account) throws SQLException {
+        String deleteChannels = "DELETE FROM " + CHANNEL_TABLE.getTableName() + " WHERE categoryId IN (SELECT id FROM " + CATEGORY_TABLE.getTableName() + " WHERE accountId=? AND accountType=?)";
+        try (PreparedStatement statement = conn.prepareStatement(deleteChannels)) {
             statement.setString(1, account.getDbId());
             statement.setString(2, account.getAction().name());
             statement.execute();
+        }
+        deleteByAccount(conn, account);
+        try (PreparedStatement statement = conn.prepareStatement(insertTableSql(CATEGORY_TABLE))) {
+            for (Category category : categories) {
+                bind(statement, category, account);
+                statement.addBatch();
+            }
+            if (!categories.isEmpty()) statement.executeBatch();
+        }
+    }
+
+    private static Map<String, String> dbIdsByTitle(Connection conn, Account account) throws SQLException {
+        Map<String, String> dbIds = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        String sql = "SELECT id, title FROM " + CATEGORY_TABLE.getTableName() + " WHERE accountId=? AND accountType=?";
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setString(1, account.getDbId());
+            statement.setString(2, account.getAction().name());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    dbIds.putIfAbsent(resultSet.getString(2), resultSet.getString(1));
+                }
+            }
+        }
+        return dbIds;
+    }
+
+    public void deleteByAccount(Account account) {
+        try (Connection conn = connect()) {
+            deleteByAccount(conn, account);
         } catch (SQLException e) {
             throw new RuntimeException("Unable to execute delete all query");
         }
     }
 
+    private static void deleteByAccount(Connection conn, Account account) throws SQLException {
+        String sql = "DELETE FROM " + CATEGORY_TABLE.getTableName() + " WHERE accountId=? AND accountType=?";
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setString(1, account.getDbId());
+            statement.setString(2, account.getAction().name());
+            statement.execute();
+        }
+    }
+
     public void insert(Category category, Account account) {
         try (Connection conn = connect(); PreparedStatement statement = conn.prepareStatement(insertTableSql(CATEGORY_TABLE))) {
-            statement.setString(1, category.getCategoryId());
-            statement.setString(2, account.getDbId());
-            statement.setString(3, account.getAction().name());
-            statement.setString(4, category.getTitle());
-            statement.setString(5, category.getAlias());
-            statement.setInt(6, category.isActiveSub() ? 1 : 0);
-            statement.setInt(7, category.getCensored());
+            bind(statement, category, account);
             statement.execute();
         } catch (SQLException e) {
             throw new RuntimeException("Unable to execute query");
         }
     }
 
+    private static void bind(PreparedStatement statement, Category category, Account account) throws SQLException {
+        statement.setString(1, category.getCategoryId());
+        statement.setString(2, account.getDbId());
+        statement.setString(3, account.getAction().name());
+        statement.setString(4, category.getTitle());
+        statement.setString(5, category.getAlias());
+        statement.setInt(6, category.isActiveSub() ? 1 : 0);
+        statement.setInt(7, category.getCensored());
+    }
+
     @Override
-    Category populate(ResultSet resultSet) {
-        Category c = new Category(nullSafeString(resultSet, "categoryId"), nullSafeString(resultSet, "title"), nullSafeString(resultSet, "alias"), "1".equals(nullSafeString(resultSet, "activeSub")), safeInteger(resultSet, "censored"));
-        c.setDbId(nullSafeString(resultSet, "id"));
+    Category populate(Row row) {
+        Category c = new Category(row.getString("categoryId"), row.getString("title"), row.getString("alias"), "1".equals(row.getString("activeSub")), row.getInt("censored"));
+        c.setDbId(row.getString("id"));
         return c;
     }
 }
@@ -6,7 +6,6 @@ import com.uiptv.model.Channel;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -16,6 +15,8 @@ import static com.uiptv.db.SQLConnection.connect;
 
 public class ChannelDb extends BaseDb {
     private static ChannelDb instance;
+    // rows sent to SQLite per executeBatch while saving a category's channels, -Duiptv.db.batchSize to override
+    private static final int BATCH_SIZE = Math.max(1, Integer.getInteger("uiptv.db.batchSize", 1000));
 
 
     public static synchronized ChannelDb get() {
@@ -38,33 +39,56 @@ public class ChannelDb extends BaseDb {
         return (channels != null && !channels.isEmpty()) ? channels.get(0) : null;
     }
 
+    /**
+     * Replaces the category's channels in a single transaction: the delete and every insert, sent in batches of
+     * BATCH_SIZE through one prepared statement, commit together.
+     */
     public void saveAll(List<Channel> channels, String dbCategoryId, Account account) {
         Category category = new CategoryDb().getCategoryById(dbCategoryId, account);
-        deleteAll(category.getDbId());
-        channels.forEach(c -> insert(c, category));
+        inTransaction(conn -> replaceAll(conn, channels, category.getDbId()), "Unable to save channels");
+    }
+
+    static void replaceAll(Connection conn, List<Channel> channels, String categoryDbId) throws SQLException {
+        deleteAll(conn, categoryDbId);
+        try (PreparedStatement statement = conn.prepareStatement(insertTableSql(CHANNEL_TABLE))) {
+            int pending = 0;
+            for (Channel channel : channels) {
+                bind(statement, channel, categoryDbId);
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) statement.executeBatch();
+        }
     }
 
     public static void insert(Channel channel, Category category) {
         try (Connection conn = connect(); PreparedStatement statement = conn.prepareStatement(insertTableSql(CHANNEL_TABLE))) {
-            statement.setString(1, channel.getChannelId());
-            statement.setString(2, category.getDbId());
-            statement.setString(3, channel.getName());
-            statement.setString(4, channel.getNumber());
-            statement.setString(5, channel.getCmd());
-            statement.setString(6, channel.getCmd_1());
-            statement.setString(7, channel.getCmd_2());
-            statement.setString(8, channel.getCmd_3());
-            statement.setString(9, channel.getLogo());
-            statement.setInt(10, channel.getCensored());
-            statement.setInt(11, channel.getStatus());
-            statement.setInt(12, channel.getHd());
-            statement.setString(13, channel.getContainerExtension());
+            bind(statement, channel, category.getDbId());
             statement.execute();
         } catch (SQLException e) {
             throw new RuntimeException("Unable to execute query");
         }
     }
 
+    private static void bind(PreparedStatement statement, Channel channel, String categoryDbId) throws SQLException {
+        statement.setString(1, channel.getChannelId());
+        statement.setString(2, categoryDbId);
+        statement.setString(3, channel.getName());
+        statement.setString(4, channel.getNumber());
+        statement.setString(5, channel.getCmd());
+        statement.setString(6, channel.getCmd_1());
+        statement.setString(7, channel.getCmd_2());
+        statement.setString(8, channel.getCmd_3());
+        statement.setString(9, channel.getLogo());
+        statement.setInt(10, channel.getCensored());
+        statement.setInt(11, channel.getStatus());
+        statement.setInt(12, channel.getHd());
+        statement.setString(13, channel.getContainerExtension());
+    }
+
     public void deleteByAccount(String accountId) {
         List<Category> categories = CategoryDb.get().getAllAccountCategories(accountId);
         if (categories != null) categories.forEach(category -> {
@@ -73,20 +97,26 @@ public class ChannelDb extends BaseDb {
     }
 
     private static void deleteAll(String categoryId) {
+        try (Connection conn = connect()) {
+            deleteAll(conn, categoryId);
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to execute delete all query");
+        }
+    }
+
+    private static void deleteAll(Connection conn, String categoryId) throws SQLException {
         String sql = "DELETE FROM " + CHANNEL_TABLE.getTableName() + " WHERE categoryId=?";
-        try (Connection conn = connect(); PreparedStatement statement = conn.prepareStatement(sql)) {
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
             statement.setString(1, categoryId);
             statement.execute();
-        } catch (SQLException e) {
-            throw new RuntimeException("Unable to execute delete all query");
         }
     }
 
     @Override
-    Channel populate(ResultSet resultSet) {
-        Channel c = new Channel(nullSafeString(resultSet, "channelId"), nullSafeString(resultSet, "name"), nullSafeString(resultSet, "number"), nullSafeString(resultSet, "containerExtension"), nullSafeString(resultSet, "cmd"), nullSafeString(resultSet, "cmd_1"), nullSafeString(resultSet, "cmd_2"), nullSafeString(resultSet, "cmd_3"), nullSafeString(resultSet, "logo"), safeInteger(resultSet, "censored"), safeInteger(resultSet, "status"), safeInteger(resultSet, "hd"));
-        c.setDbId(nullSafeString(resultSet, "id"));
-        c.setCategoryId(nullSafeString(resultSet, "categoryId"));
+    Channel populate(Row row) {
+        Channel c = new Channel(row.getString("channelId"), row.getString("name"), row.getString("number"), row.getString("containerExtension"), row.getString("cmd"), row.getString("cmd_1"), row.getString("cmd_2"), row.getString("cmd_3"), row.getString("logo"), row.getInt("censored"), row.getInt("status"), row.getInt("hd"));
+        c.setDbId(row.getString("id"));
+        c.setCategoryId(row.getString("categoryId"));
         return c;
     }
 
@@ -36,6 +36,9 @@ public class ConfigurationDb extends BaseDb {
             try (Connection conn = connect(); Statement statement = conn.createStatement()) {
                 if (DatabaseUtils.Cacheable.contains(t)) {
                     statement.execute(DatabaseUtils.createTableSql(t));
+                    for (String indexSql : DatabaseUtils.createIndexSql(t)) {
+                        statement.execute(indexSql);
+                    }
                 }
             } catch (Exception ignored) {
             }
@@ -44,24 +47,25 @@ public class ConfigurationDb extends BaseDb {
     }
 
     @Override
-    Configuration populate(ResultSet resultSet) {
+    Configuration populate(Row row) {
         Configuration c = new Configuration(
-                nullSafeString(resultSet, "playerPath1"),
-                nullSafeString(resultSet, "playerPath2"),
-                nullSafeString(resultSet, "playerPath3"),
-                nullSafeString(resultSet, "downloadPath"),
-                nullSafeString(resultSet, "defaultPlayerPath"),
-                nullSafeString(resultSet, "filterCategoriesList"),
-                nullSafeString(resultSet, "filterChannelsList"),
-                safeBoolean(resultSet, "pauseFiltering"),
-                nullSafeString(resultSet, "fontFamily"),
-                nullSafeString(resultSet, "fontSize"),
-                nullSafeString(resultSet, "fontWeight"),
-                safeBoolean(resultSet, "darkTheme"),
-                nullSafeString(resultSet, "serverPort"),
-                safeBoolean(resultSet, "pauseCaching")
+                row.getString("playerPath1"),
+                row.getString("playerPath2"),
+                row.getString("playerPath3"),
+                row.getString("downloadPath"),
+                row.getString("defaultPlayerPath"),
+                row.getString("filterCategoriesList"),
+                row.getString("filterChannelsList"),
+                row.getBoolean("pauseFiltering"),
+                row.getString("fontFamily"),
+                row.getString("fontSize"),
+                row.getString("fontWeight"),
+                row.getBoolean("darkTheme"),
+                row.getString("serverPort"),
+                row.getBoolean("pauseCaching")
         );
-        c.setDbId(nullSafeString(resultSet, "id"));
+        c.setDbId(row.getString("id"));
+        c.setEnableTimeShift(row.getBoolean("enableTimeShift"));
         return c;
     }
 
@@ -91,6 +95,7 @@ public class ConfigurationDb extends BaseDb {
             statement.setString(12, configuration.getServerPort());
             statement.setString(13, configuration.isPauseCaching() ? "1" : "0");
             statement.setString(14, configuration.getDownloadPath());
+            statement.setString(15, configuration.isEnableTimeShift() ? "1" : "0");
             statement.execute();
         } catch (SQLException e) {
             LogsUI.logError("Error in save configuration: " + e.getMessage(), e);
@@ -1,18 +1,97 @@
 package com.uiptv.db;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.*;
 
-import static com.uiptv.db.DatabaseUtils.DbTable.ACCOUNT_TABLE;
+import static com.uiptv.db.DatabaseUtils.DbTable.*;
 
+/**
+ * Ordered schema migrations. The position of a patch in the list is its version: the database records the
+ * number of patches applied in PRAGMA user_version, and on startup only the patches past that number run, each
+ * in its own transaction together with the version bump. Patches are only ever appended, never reordered.
+ */
 public class DatabasePatchesUtils {
-    private static Set<String> dbPatches = new HashSet<>();
+    private static final List<BaseDb.Transactional> dbPatches = new ArrayList<>();
 
     static {
-        dbPatches.add("ALTER TABLE " + ACCOUNT_TABLE.getTableName() + " ADD COLUMN macAddressList TEXT");
-        dbPatches.add("ALTER TABLE " + ACCOUNT_TABLE.getTableName() + " ADD COLUMN pinToTop TEXT default '0'");
+        dbPatches.add(addColumn(ACCOUNT_TABLE, "macAddressList", "TEXT"));
+        dbPatches.add(addColumn(ACCOUNT_TABLE, "pinToTop", "TEXT default '0'"));
+        dbPatches.add(addColumn(ACCOUNT_TABLE, "pageFetchConcurrency", "INTEGER"));
+        dbPatches.add(addColumn(ACCOUNT_TABLE, "disableCompression", "TEXT default '0'"));
+        dbPatches.add(createIndexes(CHANNEL_TABLE));
+        dbPatches.add(createIndexes(CATEGORY_TABLE));
+        dbPatches.add(createIndexes(BOOKMARK_TABLE));
+        dbPatches.add(sql("ANALYZE"));
+        dbPatches.add(addColumn(CONFIGURATION_TABLE, "enableTimeShift", "TEXT default '0'"));
     }
 
-    public static Set<String> getDbPatches() {
-        return dbPatches;
+    public static List<BaseDb.Transactional> getDbPatches() {
+        return Collections.unmodifiableList(dbPatches);
+    }
+
+    /**
+     * Brings the schema up to date. A patch that fails is rolled back and stops the run, so it is retried on the
+     * next start instead of being skipped.
+     *
+     * @return the schema version the database is at afterwards
+     */
+    public static int applyPatches(Connection conn) throws SQLException {
+        int version = userVersion(conn);
+        for (int i = version; i < dbPatches.size(); i++) {
+            conn.setAutoCommit(false);
+            try (Statement statement = conn.createStatement()) {
+                dbPatches.get(i).run(conn);
+                statement.execute("PRAGMA user_version=" + (i + 1));
+                conn.commit();
+                version = i + 1;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                System.out.println("Unable to apply database patch " + (i + 1) + ": " + e.getMessage());
+                break;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return version;
+    }
+
+    private static int userVersion(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA user_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private static BaseDb.Transactional sql(String sql) {
+        return conn -> {
+            try (Statement statement = conn.createStatement()) {
+                statement.execute(sql);
+            }
+        };
+    }
+
+    private static BaseDb.Transactional createIndexes(DatabaseUtils.DbTable table) {
+        return conn -> {
+            for (String indexSql : DatabaseUtils.createIndexSql(table)) {
+                sql(indexSql).run(conn);
+            }
+        };
+    }
+
+    /**
+     * Tables created by this release already have the column, as do databases patched before versions were
+     * tracked, so the column is only added where it is missing.
+     */
+    private static BaseDb.Transactional addColumn(DatabaseUtils.DbTable table, String column, String typeAndDefault) {
+        return conn -> {
+            try (Statement statement = conn.createStatement(); ResultSet resultSet = statement.executeQuery("PRAGMA table_info(" + table.getTableName() + ")")) {
+                while (resultSet.next()) {
+                    if (column.equalsIgnoreCase(resultSet.getString("name"))) return;
+                }
+            }
+            sql("ALTER TABLE " + table.getTableName() + " ADD COLUMN " + column + " " + typeAndDefault).run(conn);
+        };
     }
 }
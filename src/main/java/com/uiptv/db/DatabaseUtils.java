@@ -4,13 +4,16 @@ import java.util.*;
 
 public class DatabaseUtils {
     private static Map<String, List<DataColumn>> dbStructure = new LinkedHashMap<>();
+    private static Map<String, List<String>> dbIndexes = new LinkedHashMap<>();
 
     public enum DbTable {
         CONFIGURATION_TABLE("Configuration"),
         ACCOUNT_TABLE("Account"),
         BOOKMARK_TABLE("Bookmark"),
         CATEGORY_TABLE("Category"),
-        CHANNEL_TABLE("Channel");
+        CHANNEL_TABLE("Channel"),
+        PORTAL_SESSION_TABLE("PortalSession"),
+        ACCOUNT_HEALTH_TABLE("AccountHealth");
 
         private final String tableName;
 
@@ -42,7 +45,8 @@ public class DatabaseUtils {
                 new DataColumn("darkTheme", "TEXT"),
                 new DataColumn("serverPort", "TEXT"),
                 new DataColumn("pauseCaching", "TEXT"),
-                new DataColumn("downloadPath", "TEXT")
+                new DataColumn("downloadPath", "TEXT"),
+                new DataColumn("enableTimeShift", "TEXT")
         )));
         dbStructure.put(DbTable.ACCOUNT_TABLE.getTableName(), new ArrayList<>(Arrays.asList(
                 new DataColumn("id", "INTEGER PRIMARY KEY"),
@@ -61,7 +65,9 @@ public class DatabaseUtils {
                 new DataColumn("type", "TEXT"),
                 new DataColumn("serverPortalUrl", "TEXT"),
                 new DataColumn("pauseCaching", "TEXT"),
-                new DataColumn("pinToTop", "TEXT")
+                new DataColumn("pinToTop", "TEXT"),
+                new DataColumn("pageFetchConcurrency", "INTEGER"),
+                new DataColumn("disableCompression", "TEXT")
         )));
         dbStructure.put(DbTable.BOOKMARK_TABLE.getTableName(), new ArrayList<>(Arrays.asList(
                 new DataColumn("id", "INTEGER PRIMARY KEY"),
@@ -99,6 +105,33 @@ public class DatabaseUtils {
                 new DataColumn("hd", "INTEGER"),
                 new DataColumn("containerExtension", "TEXT")
         )));
+        dbStructure.put(DbTable.PORTAL_SESSION_TABLE.getTableName(), new ArrayList<>(Arrays.asList(
+                new DataColumn("id", "INTEGER PRIMARY KEY"),
+                new DataColumn("accountName", "TEXT NOT NULL UNIQUE"),
+                new DataColumn("serverPortalUrl", "TEXT"),
+                new DataColumn("token", "TEXT"),
+                new DataColumn("issuedAt", "INTEGER"),
+                new DataColumn("profile", "TEXT"),
+                new DataColumn("accountInfo", "TEXT")
+        )));
+        dbStructure.put(DbTable.ACCOUNT_HEALTH_TABLE.getTableName(), new ArrayList<>(Arrays.asList(
+                new DataColumn("id", "INTEGER PRIMARY KEY"),
+                new DataColumn("accountName", "TEXT NOT NULL UNIQUE"),
+                new DataColumn("status", "TEXT"),
+                new DataColumn("latencyMillis", "INTEGER"),
+                new DataColumn("lastChecked", "INTEGER"),
+                new DataColumn("lastSuccess", "INTEGER"),
+                new DataColumn("message", "TEXT")
+        )));
+        dbIndexes.put(DbTable.CHANNEL_TABLE.getTableName(), List.of(
+                "CREATE INDEX IF NOT EXISTS idx_channel_category ON Channel (categoryId)"
+        ));
+        dbIndexes.put(DbTable.CATEGORY_TABLE.getTableName(), List.of(
+                "CREATE INDEX IF NOT EXISTS idx_category_account ON Category (accountId, accountType)"
+        ));
+        dbIndexes.put(DbTable.BOOKMARK_TABLE.getTableName(), List.of(
+                "CREATE INDEX IF NOT EXISTS idx_bookmark_channel ON Bookmark (accountName, categoryTitle, channelId, channelName)"
+        ));
     }
 
 
@@ -114,6 +147,14 @@ public class DatabaseUtils {
         return removeLastChar(sql) + ")";
     }
 
+    /**
+     * The table's indexes. The statements are idempotent, so they are run both as a schema patch and whenever a
+     * table is recreated, e.g. when the cache tables are cleared.
+     */
+    public static List<String> createIndexSql(DbTable table) {
+        return dbIndexes.getOrDefault(table.getTableName(), Collections.emptyList());
+    }
+
     public static String insertTableSql(DbTable table) {
         StringBuilder sql = new StringBuilder("INSERT INTO ").append(table.getTableName()).append(" ( ");
         dbStructure.get(table.getTableName()).forEach(c -> {
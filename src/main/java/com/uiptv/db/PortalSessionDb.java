@@ -0,0 +1,80 @@
+package com.uiptv.db;
+
+import com.uiptv.model.PortalSession;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import static com.uiptv.db.DatabaseUtils.DbTable.PORTAL_SESSION_TABLE;
+import static com.uiptv.db.DatabaseUtils.insertTableSql;
+import static com.uiptv.db.SQLConnection.connect;
+
+public class PortalSessionDb extends BaseDb {
+    private static PortalSessionDb instance;
+
+
+    public static synchronized PortalSessionDb get() {
+        if (instance == null) {
+            instance = new PortalSessionDb();
+        }
+        return instance;
+    }
+
+    public PortalSessionDb() {
+        super(PORTAL_SESSION_TABLE);
+    }
+
+    public PortalSession getSession(String accountName) {
+        List<PortalSession> sessions = getAll(" where accountName=?", new String[]{accountName});
+        return (sessions != null && !sessions.isEmpty()) ? sessions.get(0) : null;
+    }
+
+    /**
+     * Replaces the account's row in one transaction, so a reader never finds it missing between the delete and
+     * the insert.
+     */
+    public void save(PortalSession session) {
+        inTransaction(conn -> {
+            delete(conn, session.getAccountName());
+            try (PreparedStatement statement = conn.prepareStatement(insertTableSql(PORTAL_SESSION_TABLE))) {
+                statement.setString(1, session.getAccountName());
+                statement.setString(2, session.getServerPortalUrl());
+                statement.setString(3, session.getToken());
+                statement.setLong(4, session.getIssuedAt());
+                statement.setString(5, session.getProfile());
+                statement.setString(6, session.getAccountInfo());
+                statement.execute();
+            }
+        }, "Unable to save portal session");
+    }
+
+    public void deleteByAccountName(String accountName) {
+        try (Connection conn = connect()) {
+            delete(conn, accountName);
+        } catch (SQLException e) {
+            throw new RuntimeException("Unable to execute delete query");
+        }
+    }
+
+    private static void delete(Connection conn, String accountName) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement("DELETE FROM " + PORTAL_SESSION_TABLE.getTableName() + " where accountName=?")) {
+            statement.setString(1, accountName);
+            statement.execute();
+        }
+    }
+
+    @Override
+    PortalSession populate(Row row) {
+        PortalSession session = new PortalSession(
+                row.getString("accountName"),
+                row.getString("serverPortalUrl"),
+                row.getString("token"),
+                row.getLong("issuedAt"),
+                row.getString("profile"),
+                row.getString("accountInfo"));
+        session.setDbId(row.getString("id"));
+        return session;
+    }
+}
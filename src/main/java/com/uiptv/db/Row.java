@@ -0,0 +1,62 @@
+package com.uiptv.db;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The current row of a query result, read by column name. Column positions are looked up once when the query
+ * runs rather than by name on every read, and values come back through the typed getters, so numbers are never
+ * formatted as text only to be parsed again. A column the result does not have reads as null, 0 or false.
+ */
+class Row {
+    private final ResultSet resultSet;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    Row(ResultSet resultSet) throws SQLException {
+        this.resultSet = resultSet;
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.putIfAbsent(metaData.getColumnLabel(i), i);
+        }
+    }
+
+    String getString(String column) {
+        Integer index = columns.get(column);
+        if (index == null) return null;
+        try {
+            return resultSet.getString(index);
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    int getInt(String column) {
+        Integer index = columns.get(column);
+        if (index == null) return 0;
+        try {
+            return resultSet.getInt(index);
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    long getLong(String column) {
+        Integer index = columns.get(column);
+        if (index == null) return 0;
+        try {
+            return resultSet.getLong(index);
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Flags are stored as "1" and "0"; anything that reads as a positive number is true.
+     */
+    boolean getBoolean(String column) {
+        return getInt(column) > 0;
+    }
+}
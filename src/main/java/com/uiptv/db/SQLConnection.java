@@ -5,21 +5,41 @@ import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
-import static com.uiptv.db.DatabasePatchesUtils.getDbPatches;
+import static com.uiptv.db.DatabasePatchesUtils.applyPatches;
 import static com.uiptv.util.Platform.getUserHomeDirPath;
 
+/**
+ * Keeps the database open for the life of the application: one writer connection, handed to one thread at a
+ * time, and a small pool of query-only reader connections. The database runs in WAL mode, so readers never wait
+ * behind a catalog refresh. Connections handed out here are leases; closing one returns it to the pool.
+ */
 public class SQLConnection {
     private static final String DB_PATH = getUserHomeDirPath() + File.separator + "uiptv.db";
+    private static final String DB_URL = "jdbc:sqlite:" + DB_PATH;
+    // tunable at launch with -Duiptv.db.readers, -Duiptv.db.cacheSizeKb (page cache per connection) and
+    // -Duiptv.db.mmapSize (bytes of the database file to memory-map)
+    private static final int READER_COUNT = Math.max(1, Integer.getInteger("uiptv.db.readers", 4));
+    private static final int CACHE_SIZE_KB = Integer.getInteger("uiptv.db.cacheSizeKb", 16 * 1024);
+    private static final long MMAP_SIZE = Long.getLong("uiptv.db.mmapSize", 256L * 1024 * 1024);
+    private static Pool pool;
 
     static {
         try {
             FileUtils.touch(new File(DB_PATH));
             for (DatabaseUtils.DbTable t : DatabaseUtils.DbTable.values()) {
-                try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + DB_PATH); Statement statement = conn.createStatement()) {
+                try (Connection conn = connect(); Statement statement = conn.createStatement()) {
                     String sql = DatabaseUtils.createTableSql(t);
                     statement.execute(sql);
                 } catch (Exception ex) {
@@ -27,22 +47,190 @@ public class SQLConnection {
                     System.out.println(ex);
                 }
             }
-            for (String sql : getDbPatches()) {
-                try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + DB_PATH); Statement statement = conn.createStatement()) {
-                    statement.execute(sql);
-                } catch (Exception ignored) {
-                }
+            try (Connection conn = connect()) {
+                applyPatches(conn);
+            } catch (Exception ex) {
+                LogsUI.logError("Error in database patches: " + ex.getMessage(), ex);
+                System.out.println(ex);
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * @return a lease on the writer connection; the calling thread holds it exclusively until it is closed
+     */
     public static Connection connect() {
-        try {
-            return DriverManager.getConnection("jdbc:sqlite:" + DB_PATH);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        return pool().writer();
+    }
+
+    /**
+     * @return a lease on a query-only reader, or on the writer when the calling thread already holds it, so reads
+     * inside a transaction see its own uncommitted changes
+     */
+    public static Connection connectReader() {
+        Pool p = pool();
+        return p.writeLock.isHeldByCurrentThread() ? p.writer() : p.reader();
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) pool.close();
+        pool = null;
+    }
+
+    private static synchronized Pool pool() {
+        if (pool == null) pool = new Pool(READER_COUNT, CACHE_SIZE_KB, MMAP_SIZE);
+        return pool;
+    }
+
+    private static class Pool {
+        private final ReentrantLock writeLock = new ReentrantLock(true);
+        private final Semaphore readPermits;
+        private final Queue<Connection> idleReaders = new ConcurrentLinkedQueue<>();
+        private final int cacheSizeKb;
+        private final long mmapSize;
+        private Connection writer;
+        private volatile boolean closed;
+
+        private Pool(int readers, int cacheSizeKb, long mmapSize) {
+            this.readPermits = new Semaphore(readers, true);
+            this.cacheSizeKb = cacheSizeKb;
+            this.mmapSize = mmapSize;
+        }
+
+        private Connection writer() {
+            writeLock.lock();
+            try {
+                if (writer == null || writer.isClosed()) {
+                    writer = open(false);
+                }
+                return lease(writer, this::releaseWriter);
+            } catch (SQLException | RuntimeException e) {
+                writeLock.unlock();
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void releaseWriter() {
+            try {
+                // the outermost lease puts the connection back in autocommit mode, undoing anything left open
+                if (writeLock.getHoldCount() == 1 && writer != null && !writer.isClosed() && !writer.getAutoCommit()) {
+                    writer.rollback();
+                    writer.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                System.out.println("Unable to reset the writer connection: " + e.getMessage());
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        private Connection reader() {
+            try {
+                readPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            try {
+                Connection reader = idleReaders.poll();
+                if (reader == null || reader.isClosed()) {
+                    reader = open(true);
+                }
+                Connection leased = reader;
+                return lease(leased, () -> releaseReader(leased));
+            } catch (SQLException | RuntimeException e) {
+                readPermits.release();
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void releaseReader(Connection reader) {
+            if (closed) {
+                closeQuietly(reader);
+            } else {
+                idleReaders.offer(reader);
+            }
+            readPermits.release();
+        }
+
+        private Connection open(boolean queryOnly) throws SQLException {
+            Connection connection = DriverManager.getConnection(DB_URL);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA busy_timeout=5000");
+                if (!queryOnly) statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute("PRAGMA cache_size=-" + cacheSizeKb);
+                statement.execute("PRAGMA mmap_size=" + mmapSize);
+                statement.execute("PRAGMA temp_store=MEMORY");
+                if (queryOnly) statement.execute("PRAGMA query_only=ON");
+            }
+            return connection;
+        }
+
+        private void close() {
+            closed = true;
+            Connection reader;
+            while ((reader = idleReaders.poll()) != null) {
+                closeQuietly(reader);
+            }
+            try {
+                if (writeLock.tryLock(5, TimeUnit.SECONDS)) {
+                    try {
+                        if (writer != null && !writer.isClosed()) {
+                            try (Statement statement = writer.createStatement()) {
+                                statement.execute("PRAGMA optimize");
+                            }
+                        }
+                    } catch (SQLException e) {
+                        System.out.println("Unable to optimize the database: " + e.getMessage());
+                    } finally {
+                        closeQuietly(writer);
+                        writeLock.unlock();
+                    }
+                } else {
+                    System.out.println("Database writer still busy at shutdown, closing it anyway");
+                    closeQuietly(writer);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closeQuietly(writer);
+            }
+        }
+
+        private static void closeQuietly(Connection connection) {
+            try {
+                if (connection != null) connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+
+        /**
+         * Wraps the pooled connection so that close() hands it back instead of closing it. Closing a lease twice
+         * is harmless.
+         */
+        private static Connection lease(Connection connection, Runnable release) {
+            boolean[] released = {false};
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (!released[0]) {
+                            released[0] = true;
+                            release.run();
+                        }
+                        return null;
+                    case "isClosed":
+                        return released[0] || connection.isClosed();
+                    default:
+                        if (released[0]) throw new SQLException("Connection lease already returned");
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            });
         }
     }
 }
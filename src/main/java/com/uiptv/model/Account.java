@@ -27,7 +27,9 @@ public class Account implements Serializable, JsonCompliant {
     private AccountAction action = itv;
     private String accountName, username, password, url, macAddress, macAddressList, serialNumber, deviceId1, deviceId2, signature, epg, m3u8Path;
     private String dbId, token;
-    private boolean pauseCaching, pinToTop;
+    private boolean pauseCaching, pinToTop, disableCompression;
+    private int pageFetchConcurrency;
+    private AccountHealth health;
     private AccountType type = STALKER_PORTAL;
 
     public Account(String accountName, String username, String password, String url, String macAddress, String macAddressList, String serialNumber, String deviceId1, String deviceId2, String signature, AccountType type, String epg, String m3u8Path, boolean pauseCaching, boolean pinToTop) {
@@ -71,6 +73,22 @@ public class Account implements Serializable, JsonCompliant {
         this.pauseCaching = pauseCaching;
     }
 
+    public boolean isDisableCompression() {
+        return disableCompression;
+    }
+
+    public void setDisableCompression(boolean disableCompression) {
+        this.disableCompression = disableCompression;
+    }
+
+    public int getPageFetchConcurrency() {
+        return pageFetchConcurrency;
+    }
+
+    public void setPageFetchConcurrency(int pageFetchConcurrency) {
+        this.pageFetchConcurrency = pageFetchConcurrency;
+    }
+
     @JSONPropertyIgnore
     public boolean isConnected() {
         if (type != STALKER_PORTAL) return true;
@@ -218,17 +236,25 @@ public class Account implements Serializable, JsonCompliant {
         this.type = type;
     }
 
+    public AccountHealth getHealth() {
+        return health;
+    }
+
+    public void setHealth(AccountHealth health) {
+        this.health = health;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Account account = (Account) o;
-        return pauseCaching == account.pauseCaching && pinToTop == account.pinToTop && Objects.equals(serverPortalUrl, account.serverPortalUrl) && action == account.action && Objects.equals(accountName, account.accountName) && Objects.equals(username, account.username) && Objects.equals(password, account.password) && Objects.equals(url, account.url) && Objects.equals(macAddress, account.macAddress) && Objects.equals(macAddressList, account.macAddressList) && Objects.equals(serialNumber, account.serialNumber) && Objects.equals(deviceId1, account.deviceId1) && Objects.equals(deviceId2, account.deviceId2) && Objects.equals(signature, account.signature) && Objects.equals(epg, account.epg) && Objects.equals(m3u8Path, account.m3u8Path) && Objects.equals(dbId, account.dbId) && Objects.equals(token, account.token) && type == account.type;
+        return pauseCaching == account.pauseCaching && pinToTop == account.pinToTop && disableCompression == account.disableCompression && pageFetchConcurrency == account.pageFetchConcurrency && Objects.equals(serverPortalUrl, account.serverPortalUrl) && action == account.action && Objects.equals(accountName, account.accountName) && Objects.equals(username, account.username) && Objects.equals(password, account.password) && Objects.equals(url, account.url) && Objects.equals(macAddress, account.macAddress) && Objects.equals(macAddressList, account.macAddressList) && Objects.equals(serialNumber, account.serialNumber) && Objects.equals(deviceId1, account.deviceId1) && Objects.equals(deviceId2, account.deviceId2) && Objects.equals(signature, account.signature) && Objects.equals(epg, account.epg) && Objects.equals(m3u8Path, account.m3u8Path) && Objects.equals(dbId, account.dbId) && Objects.equals(token, account.token) && type == account.type;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(serverPortalUrl, action, accountName, username, password, url, macAddress, macAddressList, serialNumber, deviceId1, deviceId2, signature, epg, m3u8Path, dbId, token, pauseCaching, pinToTop, type);
+        return Objects.hash(serverPortalUrl, action, accountName, username, password, url, macAddress, macAddressList, serialNumber, deviceId1, deviceId2, signature, epg, m3u8Path, dbId, token, pauseCaching, pinToTop, disableCompression, pageFetchConcurrency, type);
     }
 
     @Override
@@ -252,6 +278,8 @@ public class Account implements Serializable, JsonCompliant {
                 ", token='" + token + '\'' +
                 ", pauseCaching='" + (isPauseCaching() ? "1" : "0") + '\'' +
                 ", pinToTop='" + (isPinToTop() ? "1" : "0") + '\'' +
+                ", disableCompression='" + (isDisableCompression() ? "1" : "0") + '\'' +
+                ", pageFetchConcurrency=" + pageFetchConcurrency +
                 ", type='" + type.name() + '\'' +
                 '}';
     }
@@ -279,6 +307,9 @@ public class Account implements Serializable, JsonCompliant {
                 ",         \"m3u8Path\":\"" + safeJson(m3u8Path) + "\"" +
                 ",         \"pauseCaching\":\"" + (isPauseCaching() ? "1" : "0") + "\"" +
                 ",         \"pinToTop\":\"" + (isPinToTop() ? "1" : "0") + "\"" +
+                ",         \"disableCompression\":\"" + (isDisableCompression() ? "1" : "0") + "\"" +
+                ",         \"pageFetchConcurrency\":\"" + pageFetchConcurrency + "\"" +
+                (health != null ? ",         \"health\":" + health.toJson() : "") +
                 "}";
     }
 }
@@ -0,0 +1,125 @@
+package com.uiptv.model;
+
+
+import com.uiptv.api.JsonCompliant;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import static com.uiptv.util.StringUtils.safeJson;
+
+public class AccountHealth implements Serializable, JsonCompliant {
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {UNKNOWN, UP, DOWN}
+
+    private String dbId, accountName, message;
+    private Status status = Status.UNKNOWN;
+    private long latencyMillis, lastChecked, lastSuccess;
+
+    public AccountHealth(String accountName, Status status, long latencyMillis, long lastChecked, long lastSuccess, String message) {
+        this.accountName = accountName;
+        this.status = status;
+        this.latencyMillis = latencyMillis;
+        this.lastChecked = lastChecked;
+        this.lastSuccess = lastSuccess;
+        this.message = message;
+    }
+
+    public String getDbId() {
+        return dbId;
+    }
+
+    public void setDbId(String dbId) {
+        this.dbId = dbId;
+    }
+
+    public String getAccountName() {
+        return accountName;
+    }
+
+    public void setAccountName(String accountName) {
+        this.accountName = accountName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public boolean isUp() {
+        return status == Status.UP;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public long getLastChecked() {
+        return lastChecked;
+    }
+
+    public void setLastChecked(long lastChecked) {
+        this.lastChecked = lastChecked;
+    }
+
+    public long getLastSuccess() {
+        return lastSuccess;
+    }
+
+    public void setLastSuccess(long lastSuccess) {
+        this.lastSuccess = lastSuccess;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AccountHealth that = (AccountHealth) o;
+        return latencyMillis == that.latencyMillis && lastChecked == that.lastChecked && lastSuccess == that.lastSuccess && Objects.equals(dbId, that.dbId) && Objects.equals(accountName, that.accountName) && Objects.equals(message, that.message) && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dbId, accountName, message, status, latencyMillis, lastChecked, lastSuccess);
+    }
+
+    @Override
+    public String toString() {
+        return "AccountHealth{" +
+                "accountName='" + accountName + '\'' +
+                ", status=" + status +
+                ", latencyMillis=" + latencyMillis +
+                ", lastChecked=" + lastChecked +
+                ", lastSuccess=" + lastSuccess +
+                ", message='" + message + '\'' +
+                '}';
+    }
+
+    @Override
+    public String toJson() {
+        return "{" +
+                "   \"accountName\": \"" + safeJson(accountName) + "\"" +
+                ",  \"status\":\"" + status.name() + "\"" +
+                ",  \"latencyMillis\":\"" + latencyMillis + "\"" +
+                ",  \"lastChecked\":\"" + lastChecked + "\"" +
+                ",  \"lastSuccess\":\"" + lastSuccess + "\"" +
+                ",  \"message\":\"" + safeJson(message) + "\"" +
+                "}";
+    }
+}
@@ -9,7 +9,7 @@ import static com.uiptv.util.StringUtils.safeJson;
 
 public class Configuration implements Serializable, JsonCompliant {
     private String dbId, playerPath1, playerPath2, playerPath3, downloadPath, defaultPlayerPath, filterCategoriesList, filterChannelsList, fontFamily, fontSize, fontWeight, serverPort;
-    private boolean darkTheme, pauseFiltering, pauseCaching;
+    private boolean darkTheme, pauseFiltering, pauseCaching, enableTimeShift;
 
     public Configuration() {
     }
@@ -152,17 +152,25 @@ public class Configuration implements Serializable, JsonCompliant {
         this.pauseCaching = pauseCaching;
     }
 
+    public boolean isEnableTimeShift() {
+        return enableTimeShift;
+    }
+
+    public void setEnableTimeShift(boolean enableTimeShift) {
+        this.enableTimeShift = enableTimeShift;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Configuration that = (Configuration) o;
-        return darkTheme == that.darkTheme && pauseFiltering == that.pauseFiltering && pauseCaching == that.pauseCaching && Objects.equals(dbId, that.dbId) && Objects.equals(playerPath1, that.playerPath1) && Objects.equals(playerPath2, that.playerPath2) && Objects.equals(playerPath3, that.playerPath3) && Objects.equals(downloadPath, that.downloadPath) && Objects.equals(defaultPlayerPath, that.defaultPlayerPath) && Objects.equals(filterCategoriesList, that.filterCategoriesList) && Objects.equals(filterChannelsList, that.filterChannelsList) && Objects.equals(fontFamily, that.fontFamily) && Objects.equals(fontSize, that.fontSize) && Objects.equals(fontWeight, that.fontWeight) && Objects.equals(serverPort, that.serverPort);
+        return darkTheme == that.darkTheme && pauseFiltering == that.pauseFiltering && pauseCaching == that.pauseCaching && enableTimeShift == that.enableTimeShift && Objects.equals(dbId, that.dbId) && Objects.equals(playerPath1, that.playerPath1) && Objects.equals(playerPath2, that.playerPath2) && Objects.equals(playerPath3, that.playerPath3) && Objects.equals(downloadPath, that.downloadPath) && Objects.equals(defaultPlayerPath, that.defaultPlayerPath) && Objects.equals(filterCategoriesList, that.filterCategoriesList) && Objects.equals(filterChannelsList, that.filterChannelsList) && Objects.equals(fontFamily, that.fontFamily) && Objects.equals(fontSize, that.fontSize) && Objects.equals(fontWeight, that.fontWeight) && Objects.equals(serverPort, that.serverPort);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(dbId, playerPath1, playerPath2, playerPath3, downloadPath, defaultPlayerPath, filterCategoriesList, filterChannelsList, fontFamily, fontSize, fontWeight, serverPort, darkTheme, pauseFiltering, pauseCaching);
+        return Objects.hash(dbId, playerPath1, playerPath2, playerPath3, downloadPath, defaultPlayerPath, filterCategoriesList, filterChannelsList, fontFamily, fontSize, fontWeight, serverPort, darkTheme, pauseFiltering, pauseCaching, enableTimeShift);
     }
 
     @Override
@@ -183,6 +191,7 @@ public class Configuration implements Serializable, JsonCompliant {
                 ", darkTheme=" + darkTheme +
                 ", pauseFiltering=" + pauseFiltering +
                 ", pauseCaching=" + pauseCaching +
+                ", enableTimeShift=" + enableTimeShift +
                 '}';
     }
 
@@ -204,6 +213,7 @@ public class Configuration implements Serializable, JsonCompliant {
                 ",         \"darkTheme\":\"" + darkTheme + "\"" +
                 ",         \"pauseFiltering\":\"" + pauseFiltering + "\"" +
                 ",         \"pauseCaching\":\"" + pauseCaching + "\"" +
+                ",         \"enableTimeShift\":\"" + enableTimeShift + "\"" +
                 "}";
     }
 }
@@ -0,0 +1,113 @@
+package com.uiptv.model;
+
+
+import com.uiptv.api.JsonCompliant;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import static com.uiptv.util.StringUtils.safeJson;
+
+public class PortalSession implements Serializable, JsonCompliant {
+    private static final long serialVersionUID = 1L;
+    private String dbId, accountName, serverPortalUrl, token, profile, accountInfo;
+    private long issuedAt;
+
+    public PortalSession(String accountName, String serverPortalUrl, String token, long issuedAt, String profile, String accountInfo) {
+        this.accountName = accountName;
+        this.serverPortalUrl = serverPortalUrl;
+        this.token = token;
+        this.issuedAt = issuedAt;
+        this.profile = profile;
+        this.accountInfo = accountInfo;
+    }
+
+    public String getDbId() {
+        return dbId;
+    }
+
+    public void setDbId(String dbId) {
+        this.dbId = dbId;
+    }
+
+    public String getAccountName() {
+        return accountName;
+    }
+
+    public void setAccountName(String accountName) {
+        this.accountName = accountName;
+    }
+
+    public String getServerPortalUrl() {
+        return serverPortalUrl;
+    }
+
+    public void setServerPortalUrl(String serverPortalUrl) {
+        this.serverPortalUrl = serverPortalUrl;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(long issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+
+    public String getAccountInfo() {
+        return accountInfo;
+    }
+
+    public void setAccountInfo(String accountInfo) {
+        this.accountInfo = accountInfo;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PortalSession that = (PortalSession) o;
+        return issuedAt == that.issuedAt && Objects.equals(dbId, that.dbId) && Objects.equals(accountName, that.accountName) && Objects.equals(serverPortalUrl, that.serverPortalUrl) && Objects.equals(token, that.token) && Objects.equals(profile, that.profile) && Objects.equals(accountInfo, that.accountInfo);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dbId, accountName, serverPortalUrl, token, issuedAt, profile, accountInfo);
+    }
+
+    @Override
+    public String toString() {
+        return "PortalSession{" +
+                "dbId='" + dbId + '\'' +
+                ", accountName='" + accountName + '\'' +
+                ", serverPortalUrl='" + serverPortalUrl + '\'' +
+                ", issuedAt=" + issuedAt +
+                '}';
+    }
+
+    @Override
+    public String toJson() {
+        return "{" +
+                "   \"dbId\": \"" + dbId + "\"" +
+                ",  \"accountName\": \"" + safeJson(accountName) + "\"" +
+                ",  \"serverPortalUrl\":\"" + safeJson(serverPortalUrl) + "\"" +
+                ",  \"issuedAt\":\"" + issuedAt + "\"" +
+                "}";
+    }
+}
@@ -7,12 +7,15 @@ import com.sun.net.httpserver.HttpServer;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.uiptv.util.StringUtils.isBlank;
 import static com.uiptv.widget.UIptvAlert.showMessage;
 
 public class UIptvServer {
     private static HttpServer server;
+    private static final AtomicInteger threadCounter = new AtomicInteger();
 
     private static void initialiseServer() throws IOException {
         try {
@@ -39,8 +42,14 @@ public class UIptvServer {
             server.createContext("/playlist.m3u8", new HttpM3u8PlayListServer());
             server.createContext("/bookmarkEntry.ts", new HttpM3u8BookmarkEntry());
             server.createContext("/bookmarks.m3u8", new HttpM3u8BookmarkPlayListServer());
+            server.createContext("/relay.ts", new HttpStreamRelayServer());
 
-            server.setExecutor(null); // creates a default executor
+            // relayed streams hold their exchange for as long as the player watches, so each needs its own thread
+            server.setExecutor(Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "uiptv-server-" + threadCounter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
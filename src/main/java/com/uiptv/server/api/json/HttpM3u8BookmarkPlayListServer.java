@@ -2,19 +2,29 @@ package com.uiptv.server.api.json;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import com.uiptv.model.Bookmark;
+import com.uiptv.service.BookmarkResolveService;
 import com.uiptv.service.BookmarkService;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 import static com.uiptv.util.ServerUtils.generateM3u8Response;
+import static com.uiptv.util.ServerUtils.getParam;
 
 public class HttpM3u8BookmarkPlayListServer implements HttpHandler {
     @Override
     public void handle(HttpExchange ex) throws IOException {
 
         StringBuilder response = new StringBuilder();
-        BookmarkService.getInstance().read().forEach(b -> {
-            String requestedURL = "http://" + ex.getRequestHeaders().getFirst("Host") + "/bookmarkEntry.ts?bookmarkId=" + b.getDbId();
+        // relay=true points every entry at the shared relay, so several players on one channel use one upstream
+        String entryPath = "true".equalsIgnoreCase(getParam(ex, "relay")) ? "/relay.ts" : "/bookmarkEntry.ts";
+        List<Bookmark> bookmarks = BookmarkService.getInstance().read();
+        // resolve=true writes the final stream URLs, resolved up front, so players can start without a round trip
+        Map<String, String> resolved = "true".equalsIgnoreCase(getParam(ex, "resolve")) ? BookmarkResolveService.getInstance().resolveAll(bookmarks) : Map.of();
+        bookmarks.forEach(b -> {
+            String requestedURL = resolved.containsKey(b.getDbId()) ? resolved.get(b.getDbId()) : "http://" + ex.getRequestHeaders().getFirst("Host") + entryPath + "?bookmarkId=" + b.getDbId();
             response.append("#EXTM3U\n#EXTINF:-1 tvg-id=\"" + b.getDbId() + "\" tvg-name=\"" + b.getChannelName() + "\" group-title=\"" + b.getAccountName() + "\"," + b.getChannelName() + "\n" + requestedURL + "\n");
         });
         generateM3u8Response(ex, response.toString(), ex.getRequestHeaders().getFirst("Host") + "-bookmarks.m3u8");
@@ -6,8 +6,8 @@ import com.uiptv.model.Bookmark;
 import com.uiptv.model.Channel;
 import com.uiptv.service.AccountService;
 import com.uiptv.service.BookmarkService;
-import com.uiptv.service.HandshakeService;
 import com.uiptv.service.PlayerService;
+import com.uiptv.service.SourceSelectionService;
 import com.uiptv.util.StringUtils;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -15,6 +15,7 @@ import com.sun.net.httpserver.HttpHandler;
 import java.io.IOException;
 import java.net.URLDecoder;
 
+import static com.uiptv.util.ServerUtils.decodeCommands;
 import static com.uiptv.util.ServerUtils.generateJsonResponse;
 import static com.uiptv.util.ServerUtils.getParam;
 import static com.uiptv.util.StringUtils.isNotBlank;
@@ -34,6 +35,7 @@ public class HttpPlayerJsonServer implements HttpHandler {
         Bookmark bookmark = BookmarkService.getInstance().getBookmark(getParam(ex, "bookmarkId"));
         Account account = AccountService.getInstance().getByName(bookmark.getAccountName());
         String cmd = URLDecoder.decode(bookmark.getCmd(), UTF_8);
+        if (playbackFailed(ex)) PlayerService.getInstance().invalidate(account, cmd, "");
         String response = "{ \"url\":\"" + StringUtils.EMPTY + PlayerService.getInstance().get(account, cmd) + "\",\"channelName\":\" Test " + StringUtils.EMPTY + bookmark.getChannelName() + "\"}";
         generateJsonResponse(ex, response);
     }
@@ -41,9 +43,13 @@ public class HttpPlayerJsonServer implements HttpHandler {
     private static void channelPlayerResponse(HttpExchange ex) throws IOException {
         Account account = AccountService.getInstance().getById(getParam(ex, "accountId"));
         Channel channel = ChannelDb.get().getChannelById(getParam(ex, "channelId"), getParam(ex, "categoryId"));
-        HandshakeService.getInstance().hardTokenRefresh(account);
-        String cmd = URLDecoder.decode(channel.getCmd(), UTF_8);
-        String response = "{ \"url\":\"" + StringUtils.EMPTY + PlayerService.getInstance().get(account, cmd) + "\",\"channelName\":\" Test " + StringUtils.EMPTY + channel.getName() + "\"}";
+        decodeCommands(channel);
+        if (playbackFailed(ex)) SourceSelectionService.getInstance().forget(account, channel);
+        String response = "{ \"url\":\"" + StringUtils.EMPTY + SourceSelectionService.getInstance().get(account, channel) + "\",\"channelName\":\" Test " + StringUtils.EMPTY + channel.getName() + "\"}";
         generateJsonResponse(ex, response);
     }
+
+    private static boolean playbackFailed(HttpExchange ex) {
+        return "true".equalsIgnoreCase(getParam(ex, "failed"));
+    }
 }
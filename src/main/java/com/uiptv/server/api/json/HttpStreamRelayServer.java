@@ -0,0 +1,91 @@
+package com.uiptv.server.api.json;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.uiptv.db.ChannelDb;
+import com.uiptv.model.Account;
+import com.uiptv.model.Bookmark;
+import com.uiptv.model.Channel;
+import com.uiptv.service.AccountService;
+import com.uiptv.service.BookmarkService;
+import com.uiptv.service.PlayerService;
+import com.uiptv.service.SourceSelectionService;
+import com.uiptv.service.StreamRelayService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.util.function.Supplier;
+
+import static com.uiptv.util.ServerUtils.CONTENT_TYPE_TS;
+import static com.uiptv.util.ServerUtils.decodeCommands;
+import static com.uiptv.util.ServerUtils.getParam;
+import static com.uiptv.util.StringUtils.isBlank;
+import static com.uiptv.util.StringUtils.isNotBlank;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * /relay.ts?bookmarkId=.. or /relay.ts?accountId=..&categoryId=..&channelId=.. serves a live channel through
+ * {@link StreamRelayService}, so every local player watching it shares a single upstream connection.
+ * Adding behind=N starts playback N seconds behind live from the relay's time-shift buffer, when time-shift is
+ * enabled in the configuration. The buffer only starts recording when the first behind=N client joins a channel,
+ * so that client plays live, and later ones go back at most as far as the recording reaches.
+ */
+public class HttpStreamRelayServer implements HttpHandler {
+    @Override
+    public void handle(HttpExchange ex) throws IOException {
+        StreamRelayService.Client client;
+        try {
+            client = isNotBlank(getParam(ex, "bookmarkId")) ? joinBookmark(ex) : joinChannel(ex);
+        } catch (IOException | RuntimeException e) {
+            ex.sendResponseHeaders(502, -1);
+            ex.close();
+            return;
+        }
+        ex.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
+        ex.getResponseHeaders().add("Content-Type", CONTENT_TYPE_TS);
+        ex.sendResponseHeaders(200, 0);
+        try (OutputStream out = ex.getResponseBody()) {
+            client.streamTo(out);
+        } catch (IOException ignored) {
+            // the player went away
+        }
+    }
+
+    private static StreamRelayService.Client joinBookmark(HttpExchange ex) throws IOException {
+        Bookmark bookmark = BookmarkService.getInstance().getBookmark(getParam(ex, "bookmarkId"));
+        Account account = AccountService.getInstance().getByName(bookmark.getAccountName());
+        String cmd = URLDecoder.decode(bookmark.getCmd(), UTF_8);
+        return join(ex, account.getAccountName() + "|" + cmd, () -> {
+            try {
+                return PlayerService.getInstance().get(account, cmd);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static StreamRelayService.Client joinChannel(HttpExchange ex) throws IOException {
+        Account account = AccountService.getInstance().getById(getParam(ex, "accountId"));
+        Channel channel = ChannelDb.get().getChannelById(getParam(ex, "channelId"), getParam(ex, "categoryId"));
+        decodeCommands(channel);
+        return join(ex, account.getAccountName() + "|" + channel.getCmd(), () -> {
+            try {
+                return SourceSelectionService.getInstance().get(account, channel);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static StreamRelayService.Client join(HttpExchange ex, String key, Supplier<String> streamUrl) throws IOException {
+        String behind = getParam(ex, "behind");
+        if (isBlank(behind)) return StreamRelayService.getInstance().join(key, streamUrl);
+        try {
+            return StreamRelayService.getInstance().joinBehind(key, streamUrl, Integer.parseInt(behind));
+        } catch (NumberFormatException e) {
+            return StreamRelayService.getInstance().join(key, streamUrl);
+        }
+    }
+}
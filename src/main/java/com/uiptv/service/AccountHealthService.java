@@ -0,0 +1,138 @@
+package com.uiptv.service;
+
+import com.uiptv.db.AccountDb;
+import com.uiptv.db.AccountHealthDb;
+import com.uiptv.model.Account;
+import com.uiptv.model.AccountHealth;
+import com.uiptv.util.HttpTransport;
+import com.uiptv.util.PingStalkerPortal;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.uiptv.util.AccountType.*;
+import static com.uiptv.util.StringUtils.isBlank;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Periodically checks every account in parallel, with bounded concurrency, and stores latency, status and the
+ * last successful check in the AccountHealth table so the UI and the /accounts endpoint can show them without
+ * any network call of their own.
+ */
+public class AccountHealthService {
+    private static AccountHealthService instance;
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private final int concurrency = 8;
+
+    private AccountHealthService() {
+    }
+
+    public static synchronized AccountHealthService getInstance() {
+        if (instance == null) {
+            instance = new AccountHealthService();
+        }
+        return instance;
+    }
+
+    public synchronized void start(Duration initialDelay, Duration interval) {
+        stop();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "uiptv-health-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkAll, initialDelay.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void checkAll() {
+        List<Account> accounts = AccountDb.get().getAccounts();
+        if (accounts.isEmpty()) return;
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, accounts.size()), r -> {
+            Thread t = new Thread(r, "uiptv-health-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Callable<AccountHealth>> checks = new ArrayList<>();
+            accounts.forEach(a -> checks.add(() -> check(a)));
+            executor.invokeAll(checks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    public AccountHealth check(Account account) {
+        long start = System.currentTimeMillis();
+        String failure;
+        try {
+            failure = probe(account);
+        } catch (Exception e) {
+            failure = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        }
+        long now = System.currentTimeMillis();
+        AccountHealth previous = AccountHealthDb.get().getHealth(account.getAccountName());
+        AccountHealth health = new AccountHealth(account.getAccountName(),
+                failure == null ? AccountHealth.Status.UP : AccountHealth.Status.DOWN,
+                now - start, now,
+                failure == null ? now : previous != null ? previous.getLastSuccess() : 0,
+                failure);
+        AccountHealthDb.get().save(health);
+        return health;
+    }
+
+    /**
+     * @return null when the account is reachable, otherwise the reason it is not
+     */
+    private static String probe(Account account) throws Exception {
+        if (account.getType() == STALKER_PORTAL) {
+            if (isBlank(account.getServerPortalUrl())) {
+                account.setServerPortalUrl(PingStalkerPortal.discover(account.getUrl(), account.getMacAddress()));
+                AccountDb.get().saveServerPortalUrl(account);
+            }
+            if (!account.getServerPortalUrl().startsWith("http")) return "Portal loader not found";
+            return HandshakeService.getInstance().probe(account) ? null : "Portal refused the account";
+        }
+        if (account.getType() == XTREME_API) {
+            String base = account.getM3u8Path().endsWith("/") ? account.getM3u8Path() : account.getM3u8Path() + "/";
+            HttpResponse<String> response = HttpTransport.send(HttpTransport.newRequest(base + "player_api.php?username=" + URLEncoder.encode(account.getUsername(), UTF_8) + "&password=" + URLEncoder.encode(account.getPassword(), UTF_8)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) return "HTTP " + response.statusCode();
+            JSONObject userInfo = new JSONObject(response.body()).optJSONObject("user_info");
+            return userInfo != null && userInfo.optInt("auth", 0) == 1 ? null : "Authentication failed";
+        }
+        if (account.getType() == M3U8_LOCAL) {
+            return new File(account.getM3u8Path()).canRead() ? null : "Playlist file not readable";
+        }
+        HttpResponse<Void> head = HttpTransport.send(HttpTransport.newRequest(account.getM3u8Path()).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+        int status = head.statusCode();
+        if (status == 405 || status == 501) {
+            // some playlist hosts refuse HEAD; only the status line of a GET is needed
+            HttpResponse<InputStream> get = HttpTransport.send(HttpTransport.newRequest(account.getM3u8Path()).GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+            get.body().close();
+            status = get.statusCode();
+        }
+        return status < 400 ? null : "HTTP " + status;
+    }
+}
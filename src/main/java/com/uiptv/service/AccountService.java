@@ -1,15 +1,20 @@
 package com.uiptv.service;
 
 import com.uiptv.db.AccountDb;
+import com.uiptv.db.AccountHealthDb;
 import com.uiptv.db.BookmarkDb;
 import com.uiptv.db.CategoryDb;
 import com.uiptv.db.ChannelDb;
+import com.uiptv.db.PortalSessionDb;
 import com.uiptv.model.Account;
+import com.uiptv.model.AccountHealth;
 import com.uiptv.model.Bookmark;
 import com.uiptv.util.ServerUtils;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static com.uiptv.util.AccountType.STALKER_PORTAL;
 
@@ -40,6 +45,8 @@ public class AccountService {
                 .forEach(b -> BookmarkDb.get().delete(b.getDbId()));
         ChannelDb.get().deleteByAccount(accountId);
         CategoryDb.get().deleteByAccount(AccountDb.get().getAccountById(accountId));
+        PortalSessionDb.get().deleteByAccountName(AccountDb.get().getAccountById(accountId).getAccountName());
+        AccountHealthDb.get().deleteByAccountName(AccountDb.get().getAccountById(accountId).getAccountName());
         AccountDb.get().delete(accountId);
     }
 
@@ -62,6 +69,9 @@ public class AccountService {
     }
 
     public String readToJson() {
-        return ServerUtils.objectToJson(new ArrayList<>(getAll().values()));
+        Map<String, AccountHealth> health = AccountHealthDb.get().getHealthByAccountName();
+        List<Account> accounts = new ArrayList<>(getAll().values());
+        accounts.forEach(a -> a.setHealth(health.get(a.getAccountName())));
+        return ServerUtils.objectToJson(accounts);
     }
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package com.uiptv.service;
+
+import com.uiptv.model.Account;
+import com.uiptv.model.Bookmark;
+import com.uiptv.util.HttpTransport;
+
+import java.net.URLDecoder;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static com.uiptv.util.AccountType.STALKER_PORTAL;
+import static com.uiptv.util.StringUtils.isNotBlank;
+import static com.uiptv.widget.UIptvAlert.showMessage;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Resolves the final stream URL of many bookmarks at once for playlist export. Bookmarks are grouped by
+ * account: each account is looked up and handshaken once, then a few workers per account drain its bookmarks
+ * concurrently. Whatever has not resolved when the overall deadline passes is left out of the result, so the
+ * caller can fall back to a lazy entry for it.
+ */
+public class BookmarkResolveService {
+    private static BookmarkResolveService instance;
+    private final int perAccountConcurrency = 4;
+    private final Duration deadline = Duration.ofSeconds(15);
+
+    private BookmarkResolveService() {
+    }
+
+    public static synchronized BookmarkResolveService getInstance() {
+        if (instance == null) {
+            instance = new BookmarkResolveService();
+        }
+        return instance;
+    }
+
+    /**
+     * @return stream URLs by bookmark id, for the bookmarks that resolved before the deadline
+     */
+    public Map<String, String> resolveAll(List<Bookmark> bookmarks) {
+        long deadlineAt = System.currentTimeMillis() + deadline.toMillis();
+        Map<String, String> urls = new ConcurrentHashMap<>();
+        Map<String, List<Bookmark>> byAccount = new LinkedHashMap<>();
+        bookmarks.forEach(b -> byAccount.computeIfAbsent(b.getAccountName(), k -> new ArrayList<>()).add(b));
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        byAccount.forEach((accountName, group) -> {
+            Account account = AccountService.getInstance().getByName(accountName);
+            if (account == null) return;
+            Queue<Bookmark> pending = new ConcurrentLinkedQueue<>(group);
+            CompletableFuture<Void> session = CompletableFuture.runAsync(() -> {
+                if (account.getType() == STALKER_PORTAL) HandshakeService.getInstance().ensureToken(account);
+            }, HttpTransport.getExecutor());
+            for (int i = 0; i < Math.min(perAccountConcurrency, group.size()); i++) {
+                workers.add(session.thenRunAsync(() -> drain(account, pending, urls, deadlineAt), HttpTransport.getExecutor()));
+            }
+        });
+        try {
+            CompletableFuture.allOf(workers.toArray(new CompletableFuture<?>[0])).get(Math.max(0, deadlineAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+        }
+        if (urls.size() < bookmarks.size()) {
+            showMessage("Resolved " + urls.size() + " of " + bookmarks.size() + " bookmarks within " + deadline.toSeconds() + "s");
+        }
+        return new HashMap<>(urls);
+    }
+
+    private static void drain(Account account, Queue<Bookmark> pending, Map<String, String> urls, long deadlineAt) {
+        Bookmark bookmark;
+        while (System.currentTimeMillis() < deadlineAt && (bookmark = pending.poll()) != null) {
+            try {
+                String url = PlayerService.getInstance().get(account, URLDecoder.decode(bookmark.getCmd(), UTF_8));
+                if (isNotBlank(url)) urls.put(bookmark.getDbId(), url);
+            } catch (Exception e) {
+                System.out.println("Unable to resolve bookmark " + bookmark.getChannelName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -13,20 +13,17 @@ import com.uiptv.util.ServerUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static com.uiptv.model.Account.AccountAction.itv;
-import static com.uiptv.ui.M3U8Parser.parsePathCategory;
-import static com.uiptv.ui.M3U8Parser.parseUrlCategory;
 import static com.uiptv.util.AccountType.M3U8_URL;
 import static com.uiptv.util.AccountType.STALKER_PORTAL;
 import static com.uiptv.util.FetchAPI.nullSafeBoolean;
 import static com.uiptv.util.FetchAPI.nullSafeInteger;
 import static com.uiptv.util.StringUtils.isBlank;
+import static com.uiptv.util.StringUtils.isNotBlank;
 import static com.uiptv.widget.UIptvAlert.showError;
 
 public class CategoryService {
@@ -57,7 +54,7 @@ public class CategoryService {
             return CategoryDb.get().getCategories(account);
         } else {
             if (account.getType() == STALKER_PORTAL) {
-                HandshakeService.getInstance().hardTokenRefresh(account);
+                HandshakeService.getInstance().ensureToken(account);
             }
 
         }
@@ -68,7 +65,11 @@ public class CategoryService {
         List<Category> categories = new ArrayList<>();
         try {
             if (Objects.requireNonNull(account.getType()) == AccountType.M3U8_LOCAL || account.getType() == M3U8_URL) {
-                categories.addAll(m3u8Categories(account));
+                // one read of the playlist gives both the categories and their channels, stored in the same commit
+                List<PlaylistEntry> m3uEntries = ChannelService.m3u8Entries(account);
+                categories.addAll(m3u8Categories(m3uEntries));
+                CategoryDb.get().saveAll(categories, ChannelService.m3u8ChannelsByCategory(m3uEntries), account);
+                return;
             } else if (account.getType() == AccountType.XTREME_API) {
                 categories.addAll(xtremeAPICategories(account));
             } else if (account.getType() == AccountType.RSS_FEED) {
@@ -87,14 +88,16 @@ public class CategoryService {
         return censor(XtremeParser.parseCategories(account));
     }
 
-    private List<Category> m3u8Categories(Account account) throws MalformedURLException {
-        Set<Category> categories = new LinkedHashSet<>();
-        Set<PlaylistEntry> m3uEntries = account.getType() == M3U8_URL ? parseUrlCategory(new URL(account.getM3u8Path())) : parsePathCategory(account.getM3u8Path());
+    private List<Category> m3u8Categories(List<PlaylistEntry> m3uEntries) {
+        Map<String, Category> categories = new LinkedHashMap<>();
+        categories.put("All", new Category("All", "All", "All", false, 0));
         m3uEntries.forEach(entry -> {
-            Category c = new Category(entry.getId(), entry.getGroupTitle(), entry.getGroupTitle(), false, 0);
-            categories.add(c);
+            String groupTitle = entry.getGroupTitle();
+            if (isNotBlank(groupTitle) && !groupTitle.equalsIgnoreCase("All")) {
+                categories.putIfAbsent(groupTitle, new Category(entry.getId(), groupTitle, groupTitle, false, 0));
+            }
         });
-        return censor(categories.stream().toList());
+        return censor(new ArrayList<>(categories.values()));
     }
 
     private List<Category> rssCategories() {
@@ -108,9 +111,11 @@ public class CategoryService {
     }
 
     private List<Category> stalkerPortalCategories(Account account) {
-        HandshakeService.getInstance().connect(account);
+        HandshakeService.getInstance().ensureToken(account);
         if (account.isNotConnected()) return null;
-        String jsonResponse = FetchAPI.fetch(getCategoryParams(account.getAction()), account);
+        String jsonResponse = FetchAPI.fetch(getCategoryParams(account.getAction()), StalkerSessionPool.getInstance().next(account));
+        // keep the cached categories when the portal could not be read
+        if (isBlank(jsonResponse)) throw new RuntimeException("Unable to load the categories of " + account.getAccountName());
         return parseCategories(jsonResponse);
     }
 
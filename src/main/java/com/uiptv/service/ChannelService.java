@@ -6,14 +6,23 @@ import com.uiptv.ui.RssParser;
 import com.uiptv.ui.XtremeParser;
 import com.uiptv.util.AccountType;
 import com.uiptv.util.FetchAPI;
+import com.uiptv.util.HttpTransport;
 import com.uiptv.util.ServerUtils;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.uiptv.util.StalkerPageDecoder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -22,14 +31,15 @@ import static com.uiptv.model.Account.AccountAction.series;
 import static com.uiptv.ui.M3U8Parser.parseChannelPathM3U8;
 import static com.uiptv.ui.M3U8Parser.parseChannelUrlM3U8;
 import static com.uiptv.util.AccountType.M3U8_URL;
-import static com.uiptv.util.FetchAPI.nullSafeInteger;
-import static com.uiptv.util.FetchAPI.nullSafeString;
 import static com.uiptv.util.StringUtils.isBlank;
 import static com.uiptv.util.StringUtils.isNotBlank;
 import static com.uiptv.widget.UIptvAlert.showError;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class ChannelService {
+    public static final int DEFAULT_PAGE_FETCH_CONCURRENCY = 4;
     private static ChannelService instance;
+    private final Map<String, CompletableFuture<List<Channel>>> inFlightLoads = new ConcurrentHashMap<>();
 
     private ChannelService() {
     }
@@ -64,12 +74,42 @@ public class ChannelService {
     public List<Channel> get(String categoryId, Account account, String dbId) throws IOException {
         List<Channel> cachedChannels = ChannelDb.get().getChannels(dbId);
         if (cachedChannels.isEmpty() || account.isPauseCaching() || ConfigurationService.getInstance().read().isPauseCaching()) {
-            hardReloadChannels(categoryId, account, dbId);
-            return censor(ChannelDb.get().getChannels(dbId));
+            return censor(reloadOnce(categoryId, account, dbId));
         }
         return censor(cachedChannels);
     }
 
+    /**
+     * Single-flight reload: concurrent callers asking for the same account, action and category wait for the
+     * load already in progress instead of crawling the portal and rewriting the cache a second time.
+     */
+    private List<Channel> reloadOnce(String categoryId, Account account, String dbId) {
+        String key = account.getAccountName() + "|" + account.getAction() + "|" + categoryId + "|" + dbId;
+        CompletableFuture<List<Channel>> load = new CompletableFuture<>();
+        CompletableFuture<List<Channel>> inFlight = inFlightLoads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            try {
+                return new ArrayList<>(inFlight.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error cause) throw cause;
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        try {
+            hardReloadChannels(categoryId, account, dbId);
+            List<Channel> channels = ChannelDb.get().getChannels(dbId);
+            load.complete(channels);
+            return new ArrayList<>(channels);
+        } catch (Throwable e) {
+            // waiters must be released whatever ends the load, errors included
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, load);
+        }
+    }
+
     public List<Channel> getSeries(String categoryId, String movieId, Account account) {
         return getStalkerPortalChOrSeries(categoryId, account, movieId, "0");
     }
@@ -87,6 +127,8 @@ public class ChannelService {
             } else {
                 channels.addAll(getStalkerPortalChOrSeries(categoryId, account, null, "0"));
             }
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -99,8 +141,30 @@ public class ChannelService {
     }
 
     private List<Channel> m3u8Channels(String category, Account account) throws MalformedURLException {
+        return m3u8Channels(category, m3u8Entries(account));
+    }
+
+    /**
+     * Channels of the playlist grouped by group title in a single pass, keyed case-insensitively as categories are
+     * looked up. "All" is left out: it would be a second full copy of the playlist, so it still loads on first open.
+     */
+    public static Map<String, List<Channel>> m3u8ChannelsByCategory(List<PlaylistEntry> m3uEntries) {
+        Map<String, Set<Channel>> grouped = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        m3uEntries.stream().filter(e -> isNotBlank(e.getGroupTitle()) && !e.getGroupTitle().equalsIgnoreCase("All")).forEach(entry -> {
+            Channel c = new Channel(entry.getId(), entry.getTitle(), null, null, entry.getPlaylistEntry(), null, null, null, entry.getLogo(), 0, 0, 0);
+            grouped.computeIfAbsent(entry.getGroupTitle(), g -> new LinkedHashSet<>()).add(c);
+        });
+        Map<String, List<Channel>> channels = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        grouped.forEach((groupTitle, c) -> channels.put(groupTitle, c.stream().toList()));
+        return channels;
+    }
+
+    public static List<PlaylistEntry> m3u8Entries(Account account) throws MalformedURLException {
+        return account.getType() == M3U8_URL ? parseChannelUrlM3U8(new URL(account.getM3u8Path()), !account.isDisableCompression()) : parseChannelPathM3U8(account.getM3u8Path());
+    }
+
+    private static List<Channel> m3u8Channels(String category, List<PlaylistEntry> m3uEntries) {
         Set<Channel> channels = new LinkedHashSet<>();
-        List<PlaylistEntry> m3uEntries = account.getType() == M3U8_URL ? parseChannelUrlM3U8(new URL(account.getM3u8Path())) : parseChannelPathM3U8(account.getM3u8Path());
         m3uEntries.stream().filter(e -> category.equalsIgnoreCase("All") || e.getGroupTitle().equalsIgnoreCase(category) || e.getId().equalsIgnoreCase(category)).forEach(entry -> {
             Channel c = new Channel(entry.getId(), entry.getTitle(), null, null, entry.getPlaylistEntry(), null, null, null, entry.getLogo(), 0, 0, 0);
             channels.add(c);
@@ -109,7 +173,7 @@ public class ChannelService {
     }
     private List<Channel> rssChannels(String category, Account account) throws MalformedURLException {
         Set<Channel> channels = new LinkedHashSet<>();
-        List<PlaylistEntry> rssEntries = RssParser.parse(account.getM3u8Path());
+        List<PlaylistEntry> rssEntries = RssParser.parse(account.getM3u8Path(), !account.isDisableCompression());
         rssEntries.stream().filter(e -> category.equalsIgnoreCase("All") || e.getGroupTitle().equalsIgnoreCase(category) || e.getId().equalsIgnoreCase(category)).forEach(entry -> {
             Channel c = new Channel(entry.getId(), entry.getTitle(), null, null, entry.getPlaylistEntry(), null, null, null, entry.getLogo(), 0, 0, 0);
             channels.add(c);
@@ -119,84 +183,70 @@ public class ChannelService {
 
     private List<Channel> getStalkerPortalChOrSeries(String category, Account account, String movieId, String seriesId) {
         List<Channel> channelList = new ArrayList<>();
-        int pageNumber = 1;
-        String json = FetchAPI.fetch(getChannelOrSeriesParams(category, pageNumber, account.getAction(), movieId, seriesId), account);
-        Pagination pagination = parsePagination(json);
-        if (pagination == null) return channelList;
-        channelList.addAll(account.getAction() == itv ? parseItvChannels(json) : parseVodChannels(account, json));
-        for (pageNumber = 2; pageNumber <= pagination.getPageCount(); pageNumber++) {
-            json = FetchAPI.fetch(getChannelOrSeriesParams(category, pageNumber, account.getAction(), movieId, seriesId), account);
-            channelList.addAll(account.getAction() == itv ? parseItvChannels(json) : parseVodChannels(account, json));
+        // the background refresher may have replaced the token this account object still carries
+        HandshakeService.getInstance().ensureToken(account);
+        StalkerPageDecoder.Page firstPage = fetchPage(category, 1, account, movieId, seriesId);
+        Pagination pagination = firstPage.getPagination();
+        channelList.addAll(processPage(account, firstPage));
+        if (pagination.getPageCount() > 1) {
+            List<Account> sessions = StalkerSessionPool.getInstance().sessions(account);
+            int concurrency = Math.min(getPageFetchConcurrency(account) * sessions.size(), pagination.getPageCount() - 1);
+            ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+            try {
+                List<Future<List<Channel>>> pages = new ArrayList<>();
+                for (int pageNumber = 2; pageNumber <= pagination.getPageCount(); pageNumber++) {
+                    final int page = pageNumber;
+                    final Account session = sessions.get(page % sessions.size());
+                    pages.add(executor.submit(() -> processPage(account, fetchPage(category, page, session, movieId, seriesId))));
+                }
+                for (Future<List<Channel>> page : pages) {
+                    channelList.addAll(page.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
         }
+        HttpTransport.logStats(account.getServerPortalUrl());
         return channelList;
     }
 
-    public String readToJson(String category, Account account, String dbId) throws IOException {
-        return ServerUtils.objectToJson(get(category, account, dbId));
-    }
-
-    public Pagination parsePagination(String json) {
-        try {
-            JSONObject js = new JSONObject(json).getJSONObject("js");
-            return new Pagination(nullSafeInteger(js, "total_items"), nullSafeInteger(js, "max_page_items"));
-        } catch (Exception ignored) {
-            showError("Error while processing response data");
+    /**
+     * A page that cannot be loaded fails the whole crawl, so a partial list never replaces the cached category.
+     */
+    private StalkerPageDecoder.Page fetchPage(String category, int pageNumber, Account account, String movieId, String seriesId) {
+        StalkerPageDecoder.Page page = FetchAPI.fetch(getChannelOrSeriesParams(category, pageNumber, account.getAction(), movieId, seriesId), account, body -> decodePage(body, account));
+        if (page == null) {
+            RuntimeException e = new RuntimeException("Unable to load page " + pageNumber + " of " + account.getAction() + " category " + category + " for " + account.getAccountName());
+            showError(e.getMessage(), e);
+            throw e;
         }
-        return null;
+        return page;
     }
 
-    public List<Channel> parseItvChannels(String json) {
-        try {
-            JSONObject js = new JSONObject(json).getJSONObject("js");
-            JSONArray list = js.getJSONArray("data");
-            List<Channel> channelList = new ArrayList<>();
-            for (int i = 0; i < list.length(); i++) {
-                JSONObject jsonChannel = list.getJSONObject(i);
-                channelList.add(new Channel(jsonChannel.getString("id"), jsonChannel.getString("name"), jsonChannel.getString("number"), jsonChannel.getString("containerExtension"), jsonChannel.getString("cmd"), jsonChannel.getString("cmd_1"), jsonChannel.getString("cmd_2"), jsonChannel.getString("cmd_3"), jsonChannel.getString("logo"), nullSafeInteger(jsonChannel, "censored"), nullSafeInteger(jsonChannel, "status"), nullSafeInteger(jsonChannel, "hd")));
-            }
-            return censor(channelList);
+    private StalkerPageDecoder.Page decodePage(InputStream body, Account account) throws IOException {
+        // let a truncated or reset body surface as IOException so FetchAPI retries the page
+        return StalkerPageDecoder.decode(new InputStreamReader(body, UTF_8), account);
+    }
 
-        } catch (Exception ignored) {
-            showError("Error while processing itv response data");
+    private List<Channel> processPage(Account account, StalkerPageDecoder.Page page) {
+        List<Channel> channelList = censor(page.getChannels());
+        if (account.getAction() != itv) {
+            channelList.sort(Comparator.comparing(Channel::getCompareSeason).thenComparing(Channel::getCompareEpisode));
         }
-        return null;
+        return channelList;
     }
 
-    public List<Channel> parseVodChannels(Account account, String json) {
-        try {
-            JSONObject js = new JSONObject(json).getJSONObject("js");
-            JSONArray list = js.getJSONArray("data");
-            List<Channel> channelList = new ArrayList<>();
-            for (int i = 0; i < list.length(); i++) {
-                JSONObject jsonChannel = list.getJSONObject(i);
-                String name = nullSafeString(jsonChannel, "name");
-                if (isBlank(name)) {
-                    name = nullSafeString(jsonChannel, "o_name");
-                }
-                //String number = nullSafeString(jsonChannel, "tmdb");
-                //if (isBlank(number)) {
-                String number = nullSafeString(jsonChannel, "id");
-                String containerExtension = nullSafeString(jsonChannel, "containerExtension");
-                //}
-                String cmd = nullSafeString(jsonChannel, "cmd");
-                if (account.getAction() == series && isNotBlank(cmd)) {
-                    JSONArray series = jsonChannel.getJSONArray("series");
-                    if (series != null) {
-                        for (int j = 0; j < series.length(); j++) {
-                            channelList.add(new Channel(String.valueOf(series.get(j)), name + " - Episode " + String.valueOf(series.get(j)), number, containerExtension, cmd, null, null, null, nullSafeString(jsonChannel, "screenshot_uri"), nullSafeInteger(jsonChannel, "censored"), nullSafeInteger(jsonChannel, "status"), nullSafeInteger(jsonChannel, "hd")));
-                        }
-                    }
-                } else {
-                    channelList.add(new Channel(jsonChannel.getString("id"), name, number, containerExtension, cmd, null, null, null, nullSafeString(jsonChannel, "screenshot_uri"), nullSafeInteger(jsonChannel, "censored"), nullSafeInteger(jsonChannel, "status"), nullSafeInteger(jsonChannel, "hd")));
-                }
-            }
-            List<Channel> censoredChannelList = censor(channelList);
-            Collections.sort(censoredChannelList, Comparator.comparing(Channel::getCompareSeason).thenComparing(Channel::getCompareEpisode));
-            return censoredChannelList;
-        } catch (Exception ignored) {
-            showError("Error while processing vod response data");
-        }
-        return null;
+    private static int getPageFetchConcurrency(Account account) {
+        return account.getPageFetchConcurrency() > 0 ? account.getPageFetchConcurrency() : DEFAULT_PAGE_FETCH_CONCURRENCY;
+    }
+
+    public String readToJson(String category, Account account, String dbId) throws IOException {
+        return ServerUtils.objectToJson(get(category, account, dbId));
     }
 
     public List<Channel> censor(List<Channel> channelList) {
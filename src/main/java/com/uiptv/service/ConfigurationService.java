@@ -2,6 +2,7 @@ package com.uiptv.service;
 
 import com.uiptv.db.ConfigurationDb;
 import com.uiptv.model.Configuration;
+import com.uiptv.util.HttpCache;
 
 public class ConfigurationService {
 
@@ -19,6 +20,7 @@ public class ConfigurationService {
 
     public void clearCache() {
         ConfigurationDb.get().clearCache();
+        HttpCache.clear();
     }
     public void save(Configuration configuration) {
         ConfigurationDb.get().save(configuration);
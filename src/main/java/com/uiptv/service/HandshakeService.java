@@ -1,17 +1,25 @@
 package com.uiptv.service;
 
 import com.uiptv.db.AccountDb;
+import com.uiptv.db.PortalSessionDb;
 import com.uiptv.model.Account;
+import com.uiptv.model.PortalSession;
 import com.uiptv.ui.LogsUI;
 import com.uiptv.util.PingStalkerPortal;
 import com.uiptv.util.StringUtils;
 import org.json.JSONObject;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.uiptv.util.FetchAPI.fetch;
 import static com.uiptv.util.StringUtils.isBlank;
@@ -20,8 +28,18 @@ import static com.uiptv.util.StringUtils.isNotBlank;
 
 public class HandshakeService {
     private static HandshakeService instance;
+    private static final double PROACTIVE_REFRESH_RATIO = 0.8;
+    private final Map<String, TokenEntry> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Object> refreshLocks = new ConcurrentHashMap<>();
+    private final Duration tokenTtl = Duration.ofMinutes(30);
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "uiptv-token-refresh");
+        t.setDaemon(true);
+        return t;
+    });
 
     private HandshakeService() {
+        refresher.scheduleWithFixedDelay(this::refreshExpiringTokens, 1, 1, TimeUnit.MINUTES);
     }
 
     public static synchronized HandshakeService getInstance() {
@@ -87,7 +105,7 @@ public class HandshakeService {
     public void connect(Account account) {
         account.setToken(null);
         if (isBlank(account.getServerPortalUrl())) {
-            account.setServerPortalUrl(PingStalkerPortal.ping(account.getUrl()));
+            account.setServerPortalUrl(PingStalkerPortal.discover(account.getUrl(), account.getMacAddress()));
             AccountDb.get().saveServerPortalUrl(account);
         }
         String json = fetch(getHandshakeParams(), account);
@@ -98,25 +116,193 @@ public class HandshakeService {
             System.out.print("Unable to retrieve a token:\n\n" + json);
             return;
         }
-        json = fetch(getProfileParams(account), account);
-        if (isNotBlank(json)) {
-            fetch(getAccountParams(), account);
+        String profile = fetch(getProfileParams(account), account);
+        String accountInfo = isNotBlank(profile) ? fetch(getAccountParams(), account) : null;
+        cacheToken(account, profile, accountInfo);
+    }
+
+    /**
+     * Puts a valid token on the account without a portal round trip when a fresh one is cached; otherwise
+     * performs the handshake. A session persisted by an earlier run is trusted whatever its age, until the portal
+     * rejects it and {@link #invalidateToken(Account)} discards it; its lifetime in the cache counts from the
+     * restart. Tokens nearing expiry are renewed in the background by the refresher.
+     */
+    public void ensureToken(Account account) {
+        TokenEntry entry = tokens.get(account.getAccountName());
+        if (entry != null && entry.age().compareTo(tokenTtl) < 0) {
+            entry.lastUsed = System.currentTimeMillis();
+            account.setToken(entry.token);
+            return;
+        }
+        synchronized (refreshLocks.computeIfAbsent(account.getAccountName(), k -> new Object())) {
+            entry = tokens.get(account.getAccountName());
+            if (entry == null) {
+                entry = restoreSession(account);
+            }
+            if (entry != null && entry.age().compareTo(tokenTtl) < 0) {
+                account.setToken(entry.token);
+                return;
+            }
+            hardTokenRefresh(account);
+        }
+    }
+
+    public void invalidateToken(Account account) {
+        tokens.remove(account.getAccountName());
+        try {
+            PortalSessionDb.get().deleteByAccountName(account.getAccountName());
+        } catch (Exception e) {
+            System.out.println("Unable to discard session for " + account.getAccountName() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Called when the portal refused the token a request carried. Requests failing together share one new
+     * handshake: whoever finds that the cached token has already moved on from the refused one just adopts it.
+     * Sessions of an account's additional MACs are handshaken on their own and never touch the cached token.
+     */
+    public void reauthenticate(Account account, String refusedToken) {
+        Account stored = AccountService.getInstance().getByName(account.getAccountName());
+        if (stored != null && !Objects.equals(stored.getMacAddress(), account.getMacAddress())) {
+            synchronized (account) {
+                if (Objects.equals(account.getToken(), refusedToken)) handshake(account);
+            }
+            return;
+        }
+        synchronized (refreshLocks.computeIfAbsent(account.getAccountName(), k -> new Object())) {
+            TokenEntry entry = tokens.get(account.getAccountName());
+            if (entry != null && !Objects.equals(entry.token, refusedToken)) {
+                account.setToken(entry.token);
+                return;
+            }
+            invalidateToken(account);
+            StalkerSessionPool.getInstance().invalidate(account);
+            hardTokenRefresh(account);
+        }
+    }
+
+    private TokenEntry restoreSession(Account account) {
+        try {
+            PortalSession session = PortalSessionDb.get().getSession(account.getAccountName());
+            if (session == null || isBlank(session.getToken()) || !Objects.equals(session.getServerPortalUrl(), account.getServerPortalUrl())) {
+                return null;
+            }
+            // the portal is the judge of a persisted token, so its age is counted from now rather than from issue
+            TokenEntry entry = new TokenEntry(session.getToken(), System.currentTimeMillis(), System.currentTimeMillis());
+            tokens.putIfAbsent(account.getAccountName(), entry);
+            return entry;
+        } catch (Exception e) {
+            System.out.println("Unable to restore session for " + account.getAccountName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void refreshExpiringTokens() {
+        long proactiveAge = (long) (tokenTtl.toMillis() * PROACTIVE_REFRESH_RATIO);
+        tokens.forEach((name, entry) -> {
+            if (entry.age().toMillis() < proactiveAge) return;
+            if (System.currentTimeMillis() - entry.lastUsed > tokenTtl.toMillis()) {
+                // nobody has used this account for a full lifetime, let the token lapse
+                tokens.remove(name, entry);
+                return;
+            }
+            try {
+                // refresh a private copy so no in-flight request sees the token cleared mid-handshake
+                Account account = AccountService.getInstance().getByName(name);
+                if (account == null) {
+                    tokens.remove(name, entry);
+                    return;
+                }
+                synchronized (refreshLocks.computeIfAbsent(name, k -> new Object())) {
+                    hardTokenRefresh(account);
+                }
+            } catch (Exception e) {
+                System.out.println("Background token refresh failed for " + name + ": " + e.getMessage());
+            }
+        });
+    }
+
+    private void cacheToken(Account account, String profile, String accountInfo) {
+        if (account.isNotConnected() || isBlank(account.getToken())) {
+            invalidateToken(account);
+            return;
+        }
+        TokenEntry previous = tokens.get(account.getAccountName());
+        TokenEntry entry = new TokenEntry(account.getToken(), System.currentTimeMillis(), previous == null ? System.currentTimeMillis() : previous.lastUsed);
+        tokens.put(account.getAccountName(), entry);
+        try {
+            if (accountInfo == null) {
+                PortalSession stored = PortalSessionDb.get().getSession(account.getAccountName());
+                accountInfo = stored == null ? null : stored.getAccountInfo();
+            }
+            PortalSessionDb.get().save(new PortalSession(account.getAccountName(), account.getServerPortalUrl(), entry.token, entry.issuedAt, profile, accountInfo));
+        } catch (Exception e) {
+            System.out.println("Unable to persist session for " + account.getAccountName() + ": " + e.getMessage());
         }
     }
 
     public void hardTokenRefresh(Account account) {
         account.setToken(null);
         if (isBlank(account.getServerPortalUrl())) {
-            account.setServerPortalUrl(PingStalkerPortal.ping(account.getUrl()));
+            account.setServerPortalUrl(PingStalkerPortal.discover(account.getUrl(), account.getMacAddress()));
             AccountDb.get().saveServerPortalUrl(account);
         }
+        cacheToken(account, handshake(account), null);
+    }
+
+    /**
+     * Checks that the portal accepts the account without disturbing playback. A handshake revokes the token the MAC
+     * had, so an account with a session sends get_profile with that session's token instead; only an account
+     * without one is handshaken, on a copy that leaves the account and the token cache untouched.
+     */
+    public boolean probe(Account account) {
+        Account probe = new Account(account.getAccountName(), null, null, account.getUrl(), account.getMacAddress(), null, account.getSerialNumber(), account.getDeviceId1(), account.getDeviceId2(), account.getSignature(), account.getType(), null, null, false, false);
+        probe.setServerPortalUrl(account.getServerPortalUrl());
+        probe.setDisableCompression(account.isDisableCompression());
+        try {
+            TokenEntry entry = tokens.get(account.getAccountName());
+            if (entry == null) entry = restoreSession(account);
+            if (entry != null) {
+                probe.setToken(entry.token);
+                return isNotBlank(fetch(getProfileParams(probe), probe));
+            }
+            return isNotBlank(parseJasonToken(fetch(getHandshakeParams(), probe)));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Runs handshake and get_profile for the account as given, without consulting or updating the token cache.
+     *
+     * @return the get_profile response, or null when the portal gave no token
+     */
+    public String handshake(Account account) {
+        account.setToken(null);
         String json = fetch(getHandshakeParams(), account);
         account.setToken(parseJasonToken(json));
         if (account.isNotConnected()) {
             LogsUI.logError("Unable to retrieve a token:\n\n" + json);
             System.out.println("Unable to retrieve a token:\n\n" + json);
+            return null;
+        }
+        return fetch(getProfileParams(account), account);
+    }
+
+    private static class TokenEntry {
+        private final String token;
+        private final long issuedAt;
+        private volatile long lastUsed;
+
+        private TokenEntry(String token, long issuedAt, long lastUsed) {
+            this.token = token;
+            this.issuedAt = issuedAt;
+            this.lastUsed = lastUsed;
+        }
+
+        private Duration age() {
+            return Duration.ofMillis(System.currentTimeMillis() - issuedAt);
         }
-        fetch(getProfileParams(account), account);
     }
 
     public String parseJasonToken(String json) {
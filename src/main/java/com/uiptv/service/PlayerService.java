@@ -6,10 +6,15 @@ import com.uiptv.util.FetchAPI;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.uiptv.util.AccountType.*;
 import static com.uiptv.util.StringUtils.isBlank;
@@ -18,6 +23,9 @@ import static com.uiptv.util.StringUtils.isNotBlank;
 public class PlayerService {
     private static PlayerService instance;
     public static final EnumSet<AccountType> preDefinedUrls = EnumSet.of(RSS_FEED, M3U8_URL, M3U8_LOCAL, XTREME_API);
+    private final Map<String, ResolvedLink> links = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<ResolvedLink>> inFlightLinks = new ConcurrentHashMap<>();
+    private final Duration linkTtl = Duration.ofMinutes(5);
 
     private PlayerService() {
     }
@@ -42,17 +50,90 @@ public class PlayerService {
         } catch (Exception ignored) {
 
         }
-        String streamReadyUrl = parseUrl(FetchAPI.fetch(getParams(account, urlPrefix, series), account));
-        if (isBlank(streamReadyUrl)) {
-            HandshakeService.getInstance().hardTokenRefresh(account);
-            streamReadyUrl = parseUrl(FetchAPI.fetch(getParams(account, urlPrefix, series), account));
+        String key = linkKey(account, urlPrefix, series);
+        while (true) {
+            ResolvedLink link = links.get(key);
+            if (link == null || !link.isFresh()) {
+                if (link != null) links.remove(key, link);
+                link = resolveOnce(key, account, urlPrefix, series);
+                if (link == null) return null;
+            }
+            // a single-use link goes to exactly one caller; whoever loses the race resolves a fresh one
+            if (!link.singleUse || links.remove(key, link)) return link.url;
         }
-        return streamReadyUrl;
+    }
+
+    /**
+     * Resolves the link into the cache without handing it out, so the play that follows finds it ready.
+     */
+    public void prefetch(Account account, String urlPrefix, String series) {
+        if (isResolved(account, urlPrefix, series)) return;
+        resolveOnce(linkKey(account, urlPrefix, series), account, urlPrefix, series);
+    }
+
+    public boolean isResolved(Account account, String urlPrefix, String series) {
+        if (preDefinedUrls.contains(account.getType())) return true;
+        ResolvedLink cached = links.get(linkKey(account, urlPrefix, series));
+        return cached != null && cached.isFresh();
+    }
+
+    /**
+     * Single-flight create_link: a play request arriving while the same link is being pre-resolved waits for
+     * that call instead of issuing a second one.
+     */
+    private ResolvedLink resolveOnce(String key, Account account, String urlPrefix, String series) {
+        CompletableFuture<ResolvedLink> resolution = new CompletableFuture<>();
+        CompletableFuture<ResolvedLink> inFlight = inFlightLinks.putIfAbsent(key, resolution);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                if (e.getCause() instanceof Error cause) throw cause;
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        try {
+            String streamReadyUrl = resolve(account, urlPrefix, series);
+            ResolvedLink link = isNotBlank(streamReadyUrl) ? newLink(streamReadyUrl) : null;
+            if (link != null) links.put(key, link);
+            resolution.complete(link);
+            return link;
+        } catch (Throwable e) {
+            // waiters must be released whatever ends the call, errors included
+            resolution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLinks.remove(key, resolution);
+        }
+    }
+
+    /**
+     * Forgets the link resolved for this cmd, so the next play asks the portal for a fresh one. Called when the
+     * player reports that the stream could not be opened.
+     */
+    public void invalidate(Account account, String urlPrefix, String series) {
+        links.remove(linkKey(account, urlPrefix, series));
+    }
+
+    public void invalidate(Account account) {
+        links.keySet().removeIf(k -> k.startsWith(account.getAccountName() + "|"));
+    }
+
+    private String resolve(Account account, String urlPrefix, String series) {
+        if (account.getType() == STALKER_PORTAL) HandshakeService.getInstance().ensureToken(account);
+        // a revoked token is renewed and the call retried inside FetchAPI, so a blank link here is the portal's answer
+        return parseUrl(FetchAPI.fetch(getParams(account, urlPrefix, series), StalkerSessionPool.getInstance().next(account)));
     }
 
     public String runBookmark(Account account, String urlPrefix) {
+        invalidate(account, urlPrefix, "");
         HandshakeService.getInstance().connect(account);
-        return parseUrl(FetchAPI.fetch(getParams(account, urlPrefix, ""), account));
+        String streamReadyUrl = parseUrl(FetchAPI.fetch(getParams(account, urlPrefix, ""), account));
+        // the link is handed straight to the player, so a single-use one is not kept for a second play
+        ResolvedLink link = isNotBlank(streamReadyUrl) ? newLink(streamReadyUrl) : null;
+        if (link != null && !link.singleUse) links.put(linkKey(account, urlPrefix, ""), link);
+        return streamReadyUrl;
     }
 
     private String parseUrl(String json) {
@@ -76,11 +157,63 @@ public class PlayerService {
         return params;
     }
 
+    private static String linkKey(Account account, String urlPrefix, String series) {
+        String action = account.getAction() != null ? account.getAction().name() : "";
+        // create_link only sends series for series accounts, so live and vod links share one entry
+        String linkSeries = Account.AccountAction.series.name().equals(action) && series != null ? series : "";
+        return account.getAccountName() + "|" + action + "|" + urlPrefix + "|" + linkSeries;
+    }
+
+    /**
+     * Portals that sign their links put the expiry next to the play_token (expires, exp or e, in epoch seconds);
+     * the link is dropped a little before that, or after linkTtl when the URL carries no expiry. A play_token
+     * without a readable expiry is treated as single-use: it is kept until one caller takes it, never replayed.
+     */
+    private ResolvedLink newLink(String url) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + linkTtl.toMillis();
+        long portalExpiry = portalExpiry(url);
+        if (portalExpiry > 0) return new ResolvedLink(url, Math.max(now, Math.min(expiresAt, portalExpiry - Duration.ofSeconds(15).toMillis())), false);
+        return new ResolvedLink(url, expiresAt, url.contains("play_token="));
+    }
+
+    /**
+     * @return the expiry the portal signed into the link in epoch milliseconds, or -1 when it carries none
+     */
+    private static long portalExpiry(String url) {
+        try {
+            String query = URI.create(url.trim()).getRawQuery();
+            if (query == null) return -1;
+            for (String param : query.split("&")) {
+                String[] kv = param.split("=", 2);
+                if (kv.length == 2 && (kv[0].equals("expires") || kv[0].equals("exp") || kv[0].equals("e")) && kv[1].matches("\\d{9,11}")) {
+                    return Long.parseLong(kv[1]) * 1000;
+                }
+            }
+        } catch (Exception ignored) {
+        }
+        return -1;
+    }
+
     private static String processUrl(String url) {
         if (isBlank(url)) return url;
         String[] uriParts = url.split(" ");
         return (uriParts.length <= 1) ? url : uriParts[1];
     }
 
-}
+    private static class ResolvedLink {
+        private final String url;
+        private final long expiresAt;
+        private final boolean singleUse;
+
+        private ResolvedLink(String url, long expiresAt, boolean singleUse) {
+            this.url = url;
+            this.expiresAt = expiresAt;
+            this.singleUse = singleUse;
+        }
 
+        private boolean isFresh() {
+            return expiresAt > System.currentTimeMillis();
+        }
+    }
+}
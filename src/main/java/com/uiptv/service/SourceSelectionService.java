@@ -0,0 +1,206 @@
+package com.uiptv.service;
+
+import com.uiptv.model.Account;
+import com.uiptv.model.Channel;
+import com.uiptv.util.HttpTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static com.uiptv.model.Account.AccountAction.itv;
+import static com.uiptv.util.AccountType.STALKER_PORTAL;
+import static com.uiptv.util.StringUtils.isBlank;
+import static com.uiptv.util.StringUtils.isNotBlank;
+import static com.uiptv.widget.UIptvAlert.showMessage;
+
+/**
+ * Picks which of a live channel's commands (cmd, cmd_1, cmd_2, cmd_3) to play. Every distinct command is
+ * resolved and its stream opened concurrently; the first one to deliver a byte wins and is remembered for the
+ * channel, so later zaps go straight to it. Channels with a single command skip the probe entirely.
+ */
+public class SourceSelectionService {
+    private static SourceSelectionService instance;
+    private final Map<String, Winner> winners = new ConcurrentHashMap<>();
+    private final Duration probeTimeout = Duration.ofSeconds(4);
+    private final Duration winnerTtl = Duration.ofHours(6);
+
+    private SourceSelectionService() {
+    }
+
+    public static synchronized SourceSelectionService getInstance() {
+        if (instance == null) {
+            instance = new SourceSelectionService();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the stream URL of the fastest healthy source, or of the primary cmd when no alternative answered
+     */
+    public String get(Account account, Channel channel) throws IOException {
+        List<String> sources = sources(account, channel);
+        if (sources.size() <= 1) return PlayerService.getInstance().get(account, channel.getCmd());
+        String remembered = preferredCmd(account, channel);
+        if (winners.containsKey(key(account, channel))) {
+            String url = PlayerService.getInstance().get(account, remembered);
+            if (isNotBlank(url)) return url;
+            forget(account, channel);
+        }
+        Probe fastest = probe(account, sources);
+        if (fastest == null) return PlayerService.getInstance().get(account, channel.getCmd());
+        winners.put(key(account, channel), new Winner(fastest.cmd, System.currentTimeMillis()));
+        showMessage(channel.getName() + ": playing " + (fastest.cmd.equals(channel.getCmd()) ? "primary" : "alternative") + " source, first byte in " + fastest.ttfbMillis + "ms");
+        return PlayerService.getInstance().get(account, fastest.cmd);
+    }
+
+    /**
+     * @return the remembered winner for the channel, or its primary cmd when there is none yet
+     */
+    public String preferredCmd(Account account, Channel channel) {
+        if (channel == null) return null;
+        Winner winner = winners.get(key(account, channel));
+        if (winner == null) return channel.getCmd();
+        if (System.currentTimeMillis() - winner.chosenAt > winnerTtl.toMillis() || !sources(account, channel).contains(winner.cmd)) {
+            winners.remove(key(account, channel));
+            return channel.getCmd();
+        }
+        return winner.cmd;
+    }
+
+    /**
+     * Drops the remembered winner and its cached link, so the next play probes all sources again.
+     */
+    public void forget(Account account, Channel channel) {
+        Winner winner = winners.remove(key(account, channel));
+        if (winner != null) PlayerService.getInstance().invalidate(account, winner.cmd, "");
+        PlayerService.getInstance().invalidate(account, channel.getCmd(), "");
+    }
+
+    /**
+     * Runs one probe per source and waits at most the probe timeout for the first to deliver a byte. The
+     * moment there is a winner or the time is up, every other probe is cancelled and its stream closed, which
+     * also ends a first-byte read still waiting on a source that sent headers but no data.
+     */
+    private Probe probe(Account account, List<String> sources) {
+        CompletableFuture<Probe> fastest = new CompletableFuture<>();
+        List<ProbeTask> tasks = new ArrayList<>();
+        List<CompletableFuture<Void>> probes = new ArrayList<>();
+        for (String cmd : sources) {
+            ProbeTask task = new ProbeTask(account, cmd);
+            tasks.add(task);
+            probes.add(CompletableFuture.runAsync(() -> {
+                Probe probe = task.measure();
+                if (probe != null) fastest.complete(probe);
+            }, HttpTransport.getExecutor()));
+        }
+        CompletableFuture.allOf(probes.toArray(new CompletableFuture<?>[0])).whenComplete((r, e) -> fastest.complete(null));
+        try {
+            return fastest.get(probeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+        } finally {
+            tasks.forEach(ProbeTask::cancel);
+        }
+        return null;
+    }
+
+    private static List<String> sources(Account account, Channel channel) {
+        if (account.getType() != STALKER_PORTAL || account.getAction() != itv) return List.of(channel.getCmd());
+        Set<String> sources = new LinkedHashSet<>();
+        for (String cmd : new String[]{channel.getCmd(), channel.getCmd_1(), channel.getCmd_2(), channel.getCmd_3()}) {
+            if (isNotBlank(cmd)) sources.add(cmd);
+        }
+        return new ArrayList<>(sources);
+    }
+
+    private static String key(Account account, Channel channel) {
+        return account.getAccountName() + "|" + channel.getChannelId();
+    }
+
+    private static class Winner {
+        private final String cmd;
+        private final long chosenAt;
+
+        private Winner(String cmd, long chosenAt) {
+            this.cmd = cmd;
+            this.chosenAt = chosenAt;
+        }
+    }
+
+    /**
+     * One source's probe. The link it resolves is dropped from the cache as soon as the probe is done with it,
+     * before the probe can be reported as the winner: portals that issue single-use play_tokens would refuse
+     * the opened link again, so the winner is played from a freshly resolved one.
+     */
+    private class ProbeTask {
+        private final Account account;
+        private final String cmd;
+        private volatile boolean cancelled;
+        private volatile InputStream body;
+
+        private ProbeTask(Account account, String cmd) {
+            this.account = account;
+            this.cmd = cmd;
+        }
+
+        /**
+         * @return the time to first byte of the source's stream, or null when it could not be resolved or opened
+         * or the probe was cancelled
+         */
+        private Probe measure() {
+            String url = null;
+            try {
+                if (cancelled) return null;
+                url = PlayerService.getInstance().get(account, cmd);
+                if (cancelled || isBlank(url) || !url.startsWith("http")) return null;
+                long start = System.nanoTime();
+                HttpResponse<InputStream> response = HttpTransport.send(HttpTransport.newRequest(url).timeout(probeTimeout).GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+                body = response.body();
+                if (cancelled) return null;
+                if (response.statusCode() != 200 && response.statusCode() != 206) return null;
+                if (body.read() < 0 || cancelled) return null;
+                return new Probe(cmd, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ignored) {
+            } finally {
+                closeBody();
+                if (url != null) PlayerService.getInstance().invalidate(account, cmd, "");
+            }
+            return null;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            closeBody();
+        }
+
+        private void closeBody() {
+            InputStream stream = body;
+            if (stream == null) return;
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static class Probe {
+        private final String cmd;
+        private final long ttfbMillis;
+
+        private Probe(String cmd, long ttfbMillis) {
+            this.cmd = cmd;
+            this.ttfbMillis = ttfbMillis;
+        }
+    }
+}
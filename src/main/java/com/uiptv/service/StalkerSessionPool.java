@@ -0,0 +1,159 @@
+package com.uiptv.service;
+
+import com.uiptv.model.Account;
+import com.uiptv.util.HttpTransport;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.uiptv.util.AccountType.STALKER_PORTAL;
+import static com.uiptv.util.StringUtils.isBlank;
+import static com.uiptv.util.StringUtils.isNotBlank;
+import static com.uiptv.widget.UIptvAlert.showMessage;
+
+/**
+ * Holds a handshaken portal session for every additional MAC in an account's macAddressList, so page
+ * fetches, create_link calls and category refreshes can be spread over several devices on portals that
+ * throttle per MAC. The account's own MAC always stays the first session; MACs whose handshake fails are
+ * left out until the pool is rebuilt, which happens in the background while the current sessions keep serving.
+ */
+public class StalkerSessionPool {
+    private static StalkerSessionPool instance;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+    private final Duration sessionTtl = Duration.ofMinutes(30);
+
+    private StalkerSessionPool() {
+    }
+
+    public static synchronized StalkerSessionPool getInstance() {
+        if (instance == null) {
+            instance = new StalkerSessionPool();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the account itself followed by one session per additional MAC that completed its handshake
+     */
+    public List<Account> sessions(Account account) {
+        Pool pool = pool(account);
+        return pool == null ? List.of(account) : pool.sessions(account);
+    }
+
+    /**
+     * Picks the sessions in turn, so consecutive single requests for an account land on different MACs.
+     */
+    public Account next(Account account) {
+        Pool pool = pool(account);
+        if (pool == null) return account;
+        List<Account> sessions = pool.sessions(account);
+        return sessions.get(Math.floorMod(pool.cursor.getAndIncrement(), sessions.size()));
+    }
+
+    public void invalidate(Account account) {
+        pools.remove(account.getAccountName());
+    }
+
+    /**
+     * Returns the account's pool, starting a rebuild in the background when it is missing, stale or was built for
+     * another portal or MAC list. Callers never wait on the handshakes: until the rebuild lands they keep the
+     * previous sessions, or only the account itself when those belong to a different portal or MAC list.
+     *
+     * @return null when the account has no additional MACs to pool
+     */
+    private Pool pool(Account account) {
+        List<String> macs = additionalMacs(account);
+        if (account.getType() != STALKER_PORTAL || macs.isEmpty()) return null;
+        String name = account.getAccountName();
+        Pool pool = pools.computeIfAbsent(name, k -> new Pool());
+        String signature = signature(account, macs);
+        Build build = pool.build;
+        boolean stale = build == null || !signature.equals(build.signature) || System.currentTimeMillis() - build.builtAt > sessionTtl.toMillis();
+        if (stale && pool.rebuilding.compareAndSet(false, true)) {
+            CompletableFuture.supplyAsync(() -> handshakeAll(account, macs), HttpTransport.getExecutor())
+                    .whenComplete((tokens, e) -> {
+                        if (tokens != null && pools.get(name) == pool) pool.build = new Build(signature, tokens);
+                        pool.rebuilding.set(false);
+                    });
+        }
+        return pool;
+    }
+
+    private static Map<String, String> handshakeAll(Account account, List<String> macs) {
+        Map<String, CompletableFuture<Account>> handshakes = new LinkedHashMap<>();
+        macs.forEach(mac -> handshakes.put(mac, CompletableFuture.supplyAsync(() -> {
+            Account session = copy(account, mac, null);
+            HandshakeService.getInstance().handshake(session);
+            return session;
+        }, HttpTransport.getExecutor())));
+        Map<String, String> tokens = new LinkedHashMap<>();
+        handshakes.forEach((mac, handshake) -> {
+            try {
+                Account session = handshake.join();
+                if (session.isConnected()) {
+                    tokens.put(mac, session.getToken());
+                    return;
+                }
+            } catch (Exception ignored) {
+            }
+            showMessage("Dropping MAC " + mac + " of " + account.getAccountName() + ": handshake failed");
+        });
+        return tokens;
+    }
+
+    private static String signature(Account account, List<String> macs) {
+        return account.getServerPortalUrl() + "|" + String.join(",", macs);
+    }
+
+    private static List<String> additionalMacs(Account account) {
+        if (isBlank(account.getMacAddressList())) return List.of();
+        return Arrays.stream(account.getMacAddressList().split(","))
+                .map(String::trim)
+                .filter(m -> isNotBlank(m) && !m.equalsIgnoreCase(account.getMacAddress()))
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static Account copy(Account account, String mac, String token) {
+        Account session = new Account(account.getAccountName(), account.getUsername(), account.getPassword(), account.getUrl(), mac, null, account.getSerialNumber(), account.getDeviceId1(), account.getDeviceId2(), account.getSignature(), account.getType(), account.getEpg(), account.getM3u8Path(), account.isPauseCaching(), account.isPinToTop());
+        session.setDbId(account.getDbId());
+        session.setServerPortalUrl(account.getServerPortalUrl());
+        session.setAction(account.getAction());
+        session.setPageFetchConcurrency(account.getPageFetchConcurrency());
+        session.setDisableCompression(account.isDisableCompression());
+        session.setToken(token);
+        return session;
+    }
+
+    private static class Pool {
+        private final AtomicInteger cursor = new AtomicInteger();
+        private final AtomicBoolean rebuilding = new AtomicBoolean();
+        private volatile Build build;
+
+        private List<Account> sessions(Account account) {
+            List<Account> sessions = new ArrayList<>();
+            sessions.add(account);
+            Build current = build;
+            if (current != null && current.signature.equals(signature(account, additionalMacs(account)))) {
+                current.tokens.forEach((mac, token) -> sessions.add(copy(account, mac, token)));
+            }
+            return sessions;
+        }
+    }
+
+    private static class Build {
+        private final String signature;
+        private final Map<String, String> tokens;
+        private final long builtAt = System.currentTimeMillis();
+
+        private Build(String signature, Map<String, String> tokens) {
+            this.signature = signature;
+            this.tokens = tokens;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.uiptv.service;
+
+import com.uiptv.model.Account;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.uiptv.util.StringUtils.isBlank;
+
+/**
+ * Pre-resolves stream links for the focused row of a list and its neighbours, so the create_link round trip is
+ * already done when the user presses Enter. Work is started after a short settle delay, so holding an arrow key
+ * does not fire a request per row, and whatever has not started yet is cancelled when the focus moves on.
+ * All lists share two worker threads, which keeps the extra portal traffic to a couple of calls at a time.
+ */
+public class StreamPrefetcher<T> {
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ScheduledExecutorService executor = createExecutor();
+    private static final int neighbours = 1;
+    private static final Duration settleDelay = Duration.ofMillis(250);
+
+    private final Function<T, Account> accountOf;
+    private final Function<T, String> cmdOf;
+    private final List<Future<?>> pending = new ArrayList<>();
+
+    public StreamPrefetcher(Function<T, Account> accountOf, Function<T, String> cmdOf) {
+        this.accountOf = accountOf;
+        this.cmdOf = cmdOf;
+    }
+
+    /**
+     * Cancels the work queued for the previous focus and queues the focused row first, then its neighbours
+     * outwards. Must be called with a snapshot-safe list, i.e. from the thread that owns the items.
+     */
+    public synchronized void focus(List<T> items, int index) {
+        cancel();
+        if (items == null || index < 0 || index >= items.size()) return;
+        List<T> rows = new ArrayList<>();
+        rows.add(items.get(index));
+        for (int d = 1; d <= neighbours; d++) {
+            if (index + d < items.size()) rows.add(items.get(index + d));
+            if (index - d >= 0) rows.add(items.get(index - d));
+        }
+        rows.forEach(row -> pending.add(executor.schedule(() -> prefetch(row), settleDelay.toMillis(), TimeUnit.MILLISECONDS)));
+    }
+
+    public synchronized void cancel() {
+        // a create_link already on the wire is left to finish, its link still lands in the cache
+        pending.forEach(f -> f.cancel(false));
+        pending.clear();
+    }
+
+    private void prefetch(T row) {
+        try {
+            String cmd = cmdOf.apply(row);
+            if (isBlank(cmd)) return;
+            Account account = accountOf.apply(row);
+            if (account == null) return;
+            PlayerService.getInstance().prefetch(account, cmd, "");
+        } catch (Exception e) {
+            System.out.println("Unable to pre-resolve stream: " + e.getMessage());
+        }
+    }
+
+    private static ScheduledExecutorService createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread t = new Thread(r, "uiptv-prefetch-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
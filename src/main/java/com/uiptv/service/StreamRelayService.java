@@ -0,0 +1,368 @@
+package com.uiptv.service;
+
+import com.uiptv.util.HttpTransport;
+import com.uiptv.util.Platform;
+import com.uiptv.util.TimeShiftBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.uiptv.util.StringUtils.isBlank;
+import static com.uiptv.widget.UIptvAlert.showMessage;
+
+/**
+ * Shares one upstream connection per channel between any number of local clients. A single reader thread pulls
+ * the MPEG-TS bytes and hands each chunk to every client's bounded buffer; a client whose buffer is full is
+ * dropped rather than allowed to hold the upstream back. The upstream is closed once its last client leaves.
+ * <p>
+ * When time-shift is enabled in the configuration, a client may instead ask to watch behind live. The relay then
+ * also records into a {@link TimeShiftBuffer} under the user data dir, from that moment until its last client
+ * leaves, and such clients read from the ring.
+ */
+public class StreamRelayService {
+    private static final int CHUNK_SIZE = 188 * 348;
+    // how close to being overwritten a time-shifted client may read before it is moved forward
+    private static final int TIME_SHIFT_GUARD = 4 * CHUNK_SIZE;
+    private static final Path TIME_SHIFT_DIR = Paths.get(Platform.getUserHomeDirPath(), "timeshift");
+    private static final BitSet ringSlots = new BitSet();
+    private static final byte[] END_OF_STREAM = new byte[0];
+    private static StreamRelayService instance;
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private final Map<String, CompletableFuture<Relay>> relays = new ConcurrentHashMap<>();
+    // how many chunks a client may fall behind before it is dropped
+    private final int clientBufferChunks = 64;
+    // size of a relay's time-shift ring file
+    private final int timeShiftBytes = 256 * 1024 * 1024;
+
+    private StreamRelayService() {
+        removeStaleRings();
+    }
+
+    /**
+     * Ring files of an earlier run, which a platform that cannot delete a mapped file (Windows) leaves behind.
+     */
+    private static void removeStaleRings() {
+        if (!Files.isDirectory(TIME_SHIFT_DIR)) return;
+        try (DirectoryStream<Path> rings = Files.newDirectoryStream(TIME_SHIFT_DIR, "*.ring")) {
+            for (Path ring : rings) {
+                Files.deleteIfExists(ring);
+            }
+        } catch (IOException e) {
+            System.out.println("Unable to remove old time-shift files: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ring files are named by slot and a slot is reused once its relay has stopped, so the files on disk never
+     * outnumber the relays recording at the same time, even where a closed ring cannot be deleted.
+     */
+    private static synchronized int claimRingSlot() {
+        int slot = ringSlots.nextClearBit(0);
+        ringSlots.set(slot);
+        return slot;
+    }
+
+    private static synchronized void releaseRingSlot(int slot) {
+        ringSlots.clear(slot);
+    }
+
+    public static synchronized StreamRelayService getInstance() {
+        if (instance == null) {
+            instance = new StreamRelayService();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the relays that are running, by key; relays still resolving their stream are left out
+     */
+    public Map<String, Relay> getRelays() {
+        Map<String, Relay> running = new TreeMap<>();
+        relays.forEach((key, relay) -> {
+            if (relay.isDone() && !relay.isCompletedExceptionally()) running.put(key, relay.join());
+        });
+        return running;
+    }
+
+    /**
+     * Joins the relay running for the key, starting one when there is none. The stream URL is only resolved in
+     * the latter case, so extra clients on a channel cost no portal call at all.
+     */
+    public Client join(String key, Supplier<String> streamUrl) throws IOException {
+        return join(key, streamUrl, -1);
+    }
+
+    /**
+     * Like {@link #join(String, Supplier)}, but the client starts the given number of seconds behind live, or as
+     * far back as the relay has recorded. Time-shifting is off unless enabled in the configuration; until then no
+     * ring file is ever written and the client joins live.
+     */
+    public Client joinBehind(String key, Supplier<String> streamUrl, int behindSeconds) throws IOException {
+        if (!ConfigurationService.getInstance().read().isEnableTimeShift()) {
+            showMessage("Relay " + key + ": time-shift is turned off, joining live");
+            return join(key, streamUrl, -1);
+        }
+        return join(key, streamUrl, Math.max(0, behindSeconds));
+    }
+
+    /**
+     * The first client for a key resolves the stream and starts the relay without holding any lock shared with
+     * other keys; clients arriving meanwhile wait on the same future. A relay that has just shut down is replaced.
+     */
+    private Client join(String key, Supplier<String> streamUrl, int behindSeconds) throws IOException {
+        while (true) {
+            CompletableFuture<Relay> starting = new CompletableFuture<>();
+            CompletableFuture<Relay> pending = relays.putIfAbsent(key, starting);
+            if (pending == null) {
+                pending = starting;
+                start(key, streamUrl, starting);
+            }
+            Relay relay;
+            try {
+                relay = pending.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException cause) throw cause;
+                throw new IOException("Unable to start a relay for " + key, e.getCause());
+            }
+            Client client = new Client(this, relay, clientBufferChunks);
+            if (behindSeconds >= 0) {
+                TimeShiftBuffer ring = relay.timeShift(timeShiftBytes);
+                if (ring != null) client.position = ring.offsetBehind(behindSeconds * 1000L);
+            }
+            if (relay.add(client)) return client;
+            relays.remove(key, pending);
+            // a relay this call started itself ended at once, so its upstream is not worth another try
+            if (pending == starting) throw new IOException("Relay " + key + " ended before it could be joined");
+        }
+    }
+
+    private void start(String key, Supplier<String> streamUrl, CompletableFuture<Relay> starting) throws IOException {
+        try {
+            String url = streamUrl.get();
+            if (isBlank(url) || !url.startsWith("http")) throw new IOException("Unable to resolve a stream for " + key);
+            Relay relay = new Relay(key, url);
+            relay.start();
+            starting.complete(relay);
+        } catch (Throwable e) {
+            relays.remove(key, starting);
+            starting.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void leave(Relay relay, Client client) {
+        if (relay.remove(client)) {
+            relays.computeIfPresent(relay.key, (key, pending) -> !pending.isCompletedExceptionally() && pending.getNow(null) == relay ? null : pending);
+        }
+    }
+
+    public static class Relay {
+        private final String key, url;
+        private final int id = threadCounter.incrementAndGet();
+        private final List<Client> clients = new CopyOnWriteArrayList<>();
+        private volatile boolean closed;
+        private volatile InputStream upstream;
+        private volatile TimeShiftBuffer timeShift;
+        private int ringSlot = -1;
+        private Thread reader;
+
+        private Relay(String key, String url) {
+            this.key = key;
+            this.url = url;
+        }
+
+        /**
+         * @return the relay's time-shift ring, created on first use, or null once the relay has shut down
+         */
+        private synchronized TimeShiftBuffer timeShift(int capacity) throws IOException {
+            if (closed) return null;
+            if (timeShift == null) {
+                int slot = claimRingSlot();
+                try {
+                    timeShift = new TimeShiftBuffer(TIME_SHIFT_DIR.resolve("ring-" + slot + ".ring"), capacity, CHUNK_SIZE);
+                } catch (IOException | RuntimeException e) {
+                    releaseRingSlot(slot);
+                    throw e;
+                }
+                ringSlot = slot;
+                showMessage("Relay " + key + ": recording time-shift buffer of " + (capacity >> 20) + "MB");
+            }
+            return timeShift;
+        }
+
+        /**
+         * @return false when the relay has already shut down and the client should join a new one
+         */
+        private synchronized boolean add(Client client) {
+            if (closed) return false;
+            clients.add(client);
+            return true;
+        }
+
+        /**
+         * @return true when this was the last client, in which case the relay has been closed
+         */
+        private synchronized boolean remove(Client client) {
+            clients.remove(client);
+            if (!clients.isEmpty()) return false;
+            close();
+            return true;
+        }
+
+        public int getClientCount() {
+            return clients.size();
+        }
+
+        private void start() {
+            reader = new Thread(this::pump, "uiptv-relay-" + id);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void pump() {
+            try {
+                HttpResponse<InputStream> response = HttpTransport.sendStream(HttpTransport.newRequest(url).GET().build());
+                upstream = response.body();
+                if (response.statusCode() != 200) {
+                    showMessage("Relay " + key + ": upstream answered HTTP " + response.statusCode());
+                    return;
+                }
+                showMessage("Relay " + key + " started");
+                while (!closed) {
+                    byte[] chunk = upstream.readNBytes(CHUNK_SIZE);
+                    if (chunk.length == 0) break;
+                    TimeShiftBuffer ring = timeShift;
+                    if (ring != null) ring.append(chunk);
+                    for (Client client : clients) {
+                        if (client.position < 0 && !client.buffer.offer(chunk)) {
+                            showMessage("Relay " + key + ": dropping a client that fell " + client.capacity + " chunks behind");
+                            clients.remove(client);
+                            client.end();
+                        }
+                    }
+                    if (chunk.length < CHUNK_SIZE) break;
+                }
+            } catch (IOException e) {
+                if (!closed) showMessage("Relay " + key + " lost its upstream: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finish();
+                showMessage("Relay " + key + " stopped");
+            }
+        }
+
+        /**
+         * Ends every client once the upstream is gone. The time-shift ring stays open for clients still reading
+         * behind live and is removed when the last of them leaves.
+         */
+        private synchronized void finish() {
+            closed = true;
+            closeUpstream();
+            clients.forEach(Client::end);
+        }
+
+        private synchronized void close() {
+            closed = true;
+            closeUpstream();
+            if (timeShift != null) timeShift.close();
+            if (ringSlot >= 0) releaseRingSlot(ringSlot);
+            ringSlot = -1;
+        }
+
+        private void closeUpstream() {
+            try {
+                if (upstream != null) upstream.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    public static class Client {
+        private final StreamRelayService service;
+        private final Relay relay;
+        private final int capacity;
+        private final BlockingQueue<byte[]> buffer;
+        // absolute offset in the relay's time-shift ring, or -1 for a live client fed through the buffer
+        private volatile long position = -1;
+
+        private Client(StreamRelayService service, Relay relay, int capacity) {
+            this.service = service;
+            this.relay = relay;
+            this.capacity = capacity;
+            // one slot more than the data capacity, so the end marker always fits
+            this.buffer = new ArrayBlockingQueue<>(capacity + 1);
+        }
+
+        /**
+         * Copies the relayed bytes to the output until the client disconnects, is dropped, or the upstream ends.
+         */
+        public void streamTo(OutputStream out) throws IOException {
+            try {
+                if (position >= 0) {
+                    streamShifted(out);
+                    return;
+                }
+                while (true) {
+                    byte[] chunk = buffer.take();
+                    if (chunk == END_OF_STREAM) break;
+                    out.write(chunk);
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                service.leave(relay, this);
+            }
+        }
+
+        /**
+         * Sends the ring one chunk at a time. A client about to be lapped by the writer is first moved forward to
+         * a chunk the writer cannot reach while it is sent; one overtaken regardless has received torn data and is
+         * dropped.
+         */
+        private void streamShifted(OutputStream out) throws IOException, InterruptedException {
+            TimeShiftBuffer ring = relay.timeShift;
+            // the HTTP server only offers an OutputStream, so this is a heap copy, not a zero-copy file-to-socket send
+            WritableByteChannel target = Channels.newChannel(out);
+            while (!ring.isClosed()) {
+                long written = ring.awaitData(position, 1000);
+                long safeFrom = written - ring.getCapacity() + TIME_SHIFT_GUARD;
+                if (position < safeFrom) {
+                    position = ring.chunkAtOrAfter(safeFrom);
+                }
+                if (written > position) {
+                    long sent = ring.transferTo(position, Math.min(CHUNK_SIZE, written - position), target);
+                    if (sent < 0) {
+                        showMessage("Relay " + relay.key + ": dropping a time-shifted client the recording overtook");
+                        break;
+                    }
+                    position += sent;
+                    out.flush();
+                } else if (relay.closed) {
+                    break;
+                }
+            }
+        }
+
+        private void end() {
+            buffer.clear();
+            buffer.offer(END_OF_STREAM);
+        }
+    }
+}
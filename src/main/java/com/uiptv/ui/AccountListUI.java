@@ -2,19 +2,24 @@ package com.uiptv.ui;
 
 import com.uiptv.api.Callback;
 import com.uiptv.db.AccountDb;
+import com.uiptv.db.AccountHealthDb;
 import com.uiptv.model.Account;
+import com.uiptv.model.AccountHealth;
 import com.uiptv.model.Category;
+import com.uiptv.service.AccountHealthService;
 import com.uiptv.service.AccountService;
 import com.uiptv.service.CategoryService;
 import com.uiptv.widget.AutoGrowPaneVBox;
 import com.uiptv.widget.SearchableFilterableTableView;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.scene.Cursor;
 import javafx.scene.control.ContextMenu;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableRow;
 import javafx.scene.input.KeyCode;
@@ -24,14 +29,17 @@ import javafx.scene.layout.VBox;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.uiptv.model.Account.AccountAction.itv;
 import static com.uiptv.ui.RootApplication.primaryStage;
 
 public class AccountListUI extends HBox {
     private final TableColumn<AccountItem, String> accountName = new TableColumn<>("Account List");
+    private final TableColumn<AccountItem, AccountHealth> accountHealth = new TableColumn<>("Health");
     private final BookmarkChannelListUI bookmarkChannelListUI;
     SearchableFilterableTableView table = new SearchableFilterableTableView();
     AccountService accountService = AccountService.getInstance();
@@ -42,6 +50,7 @@ public class AccountListUI extends HBox {
         this.bookmarkChannelListUI = bookmarkChannelListUI;
         initWidgets();
         refresh();
+        AccountHealthService.getInstance().addListener(() -> Platform.runLater(this::refresh));
     }
 
     public CategoryListUI refreshCategoryList(Account account) {
@@ -63,8 +72,9 @@ public class AccountListUI extends HBox {
         List<AccountItem> catList = new ArrayList<>();
 
         LinkedHashMap<String, Account> spClients = accountService.getAll();
+        Map<String, AccountHealth> health = AccountHealthDb.get().getHealthByAccountName();
         if (spClients != null) {
-            spClients.keySet().forEach(k -> catList.add(new AccountItem(new SimpleStringProperty(spClients.get(k).getAccountName()), new SimpleStringProperty(spClients.get(k).getDbId()), new SimpleStringProperty(spClients.get(k).getType().name()))));
+            spClients.keySet().forEach(k -> catList.add(new AccountItem(new SimpleStringProperty(spClients.get(k).getAccountName()), new SimpleStringProperty(spClients.get(k).getDbId()), new SimpleStringProperty(spClients.get(k).getType().name()), new SimpleObjectProperty<>(health.get(k)))));
         }
         table.setItems(FXCollections.observableArrayList(catList));
         table.filterByAccountType();
@@ -73,12 +83,22 @@ public class AccountListUI extends HBox {
     private void initWidgets() {
         setSpacing(10);
         table.setEditable(true);
-        table.getColumns().addAll(accountName);
+        table.getColumns().addAll(List.of(accountName, accountHealth));
         accountName.setVisible(true);
         accountName.setSortType(TableColumn.SortType.ASCENDING);
         accountName.setSortable(true);
         accountName.setCellValueFactory(cellData -> cellData.getValue().accountNameProperty());
-        HBox sceneBox = new HBox(5, table.getTextField(), table.getComboBox());
+        accountHealth.setSortable(true);
+        accountHealth.setCellValueFactory(cellData -> cellData.getValue().accountHealthProperty());
+        accountHealth.setCellFactory(column -> new TableCell<>() {
+            @Override
+            protected void updateItem(AccountHealth health, boolean empty) {
+                super.updateItem(health, empty);
+                setText(empty ? null : healthText(health));
+            }
+        });
+        accountHealth.setComparator(Comparator.comparingInt(AccountListUI::healthRank).thenComparingLong(h -> h == null ? Long.MAX_VALUE : h.getLatencyMillis()));
+        HBox sceneBox = new HBox(5, table.getTextField(), table.getComboBox(), table.getHideDown());
         sceneBox.setMaxHeight(25);
         getChildren().addAll(new AutoGrowPaneVBox(5, sceneBox, table));
         addAccountClickHandler();
@@ -86,12 +106,12 @@ public class AccountListUI extends HBox {
 
     private void addAccountClickHandler() {
         table.setOnKeyReleased(event -> {
-            onEditCallback.call(AccountDb.get().getAccountById(((AccountItem) table.getFocusModel().getFocusedItem()).accountId.get()));
+            onEditCallback.call(AccountDb.get().getAccountById(table.getFocusModel().getFocusedItem().accountId.get()));
             if (event.getCode() == KeyCode.DELETE) {
-                onDeleteCallback.call(AccountDb.get().getAccountById(((AccountItem) table.getFocusModel().getFocusedItem()).accountId.get()));
+                onDeleteCallback.call(AccountDb.get().getAccountById(table.getFocusModel().getFocusedItem().accountId.get()));
             }
             if (event.getCode() == KeyCode.ENTER) {
-                retrieveThreadedAccountCategories((AccountItem) table.getFocusModel().getFocusedItem(), itv);
+                retrieveThreadedAccountCategories(table.getFocusModel().getFocusedItem(), itv);
             }
         });
         table.setRowFactory(tv -> {
@@ -165,20 +185,35 @@ public class AccountListUI extends HBox {
         CategoryListUI categoryListUI = refreshCategoryList(account);
         if (categoryListUI == null) return;
         AccountListUI.this.getChildren().clear();
-        HBox sceneBox = new HBox(5, table.getTextField(), table.getComboBox());
+        HBox sceneBox = new HBox(5, table.getTextField(), table.getComboBox(), table.getHideDown());
         sceneBox.setMaxHeight(25);
         AccountListUI.this.getChildren().addAll(new VBox(5, sceneBox, table), categoryListUI);
     }
 
+    private static String healthText(AccountHealth health) {
+        if (health == null || health.getStatus() == AccountHealth.Status.UNKNOWN) return "";
+        return health.isUp() ? "UP " + health.getLatencyMillis() + "ms" : "DOWN";
+    }
+
+    /**
+     * Sorts accounts that are up first, then those that are down, then those not checked yet.
+     */
+    private static int healthRank(AccountHealth health) {
+        if (health == null || health.getStatus() == AccountHealth.Status.UNKNOWN) return 2;
+        return health.isUp() ? 0 : 1;
+    }
+
     public class AccountItem {
         private final SimpleStringProperty accountName;
         private final SimpleStringProperty accountId;
         private final SimpleStringProperty accountType;
+        private final SimpleObjectProperty<AccountHealth> accountHealth;
 
-        public AccountItem(SimpleStringProperty accountName, SimpleStringProperty accountId, SimpleStringProperty accountType) {
+        public AccountItem(SimpleStringProperty accountName, SimpleStringProperty accountId, SimpleStringProperty accountType, SimpleObjectProperty<AccountHealth> accountHealth) {
             this.accountName = accountName;
             this.accountId = accountId;
             this.accountType = accountType;
+            this.accountHealth = accountHealth;
         }
 
         public String getAccountId() {
@@ -216,5 +251,17 @@ public class AccountListUI extends HBox {
         public void setAccountType(String accountType) {
             this.accountType.set(accountType);
         }
+
+        public AccountHealth getAccountHealth() {
+            return accountHealth.get();
+        }
+
+        public SimpleObjectProperty<AccountHealth> accountHealthProperty() {
+            return accountHealth;
+        }
+
+        public void setAccountHealth(AccountHealth accountHealth) {
+            this.accountHealth.set(accountHealth);
+        }
     }
 }
\ No newline at end of file
@@ -6,6 +6,7 @@ import com.uiptv.service.AccountService;
 import com.uiptv.service.BookmarkService;
 import com.uiptv.service.ConfigurationService;
 import com.uiptv.service.PlayerService;
+import com.uiptv.service.StreamPrefetcher;
 import com.uiptv.util.Platform;
 import com.uiptv.widget.AutoGrowVBox;
 import com.uiptv.widget.SearchableTableView;
@@ -24,8 +25,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class BookmarkChannelListUI extends HBox {
-    SearchableTableView bookmarkTable = new SearchableTableView();
+    SearchableTableView<BookmarkItem> bookmarkTable = new SearchableTableView<>();
     TableColumn<BookmarkItem, String> bookmarkColumn = new TableColumn("bookmarkColumn");
+    private final StreamPrefetcher<BookmarkItem> prefetcher = new StreamPrefetcher<>(BookmarkChannelListUI::accountOf, BookmarkItem::getCmd);
 
     public BookmarkChannelListUI() {
         initWidgets();
@@ -44,7 +46,7 @@ public class BookmarkChannelListUI extends HBox {
     private void initWidgets() {
         setSpacing(10);
         bookmarkTable.setEditable(true);
-        bookmarkTable.getColumns().addAll(bookmarkColumn);
+        bookmarkTable.getColumns().add(bookmarkColumn);
         bookmarkColumn.setVisible(true);
         bookmarkColumn.setCellValueFactory(cellData -> cellData.getValue().channelAccountNameProperty());
         bookmarkColumn.setSortType(TableColumn.SortType.ASCENDING);
@@ -54,9 +56,13 @@ public class BookmarkChannelListUI extends HBox {
     }
 
     private void addChannelClickHandler() {
+        bookmarkTable.getFocusModel().focusedIndexProperty().addListener((observable, oldIndex, newIndex) -> prefetcher.focus(bookmarkTable.getItems(), newIndex.intValue()));
+        bookmarkTable.focusedProperty().addListener((observable, wasFocused, focused) -> {
+            if (!focused) prefetcher.cancel();
+        });
         bookmarkTable.setOnKeyReleased(event -> {
             if (event.getCode() == KeyCode.ENTER) {
-                play((BookmarkItem) bookmarkTable.getFocusModel().getFocusedItem(), false, ConfigurationService.getInstance().read().getDefaultPlayerPath());
+                play(bookmarkTable.getFocusModel().getFocusedItem(), false, ConfigurationService.getInstance().read().getDefaultPlayerPath());
             }
         });
         bookmarkTable.setRowFactory(tv -> {
@@ -112,10 +118,15 @@ public class BookmarkChannelListUI extends HBox {
                         .otherwise(rowMenu));
     }
 
+    private static Account accountOf(BookmarkItem item) {
+        Account account = AccountService.getInstance().getByName(item.getAccountName());
+        if (account != null) account.setServerPortalUrl(item.getServerPortalUrl());
+        return account;
+    }
+
     private void play(BookmarkItem item, boolean hardReset, String playerPath) {
         try {
-            Account account = AccountService.getInstance().getAll().get(item.getAccountName());
-            account.setServerPortalUrl(item.getServerPortalUrl());
+            Account account = accountOf(item);
             if (hardReset) {
                 Platform.executeCommand(playerPath, PlayerService.getInstance().runBookmark(account, item.getCmd()));
             } else {
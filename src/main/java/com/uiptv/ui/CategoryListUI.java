@@ -2,6 +2,7 @@ package com.uiptv.ui;
 
 import com.uiptv.model.Account;
 import com.uiptv.model.Category;
+import com.uiptv.model.Channel;
 import com.uiptv.service.ChannelService;
 import com.uiptv.service.ConfigurationService;
 import com.uiptv.widget.AutoGrowVBox;
@@ -24,6 +25,7 @@ import java.util.List;
 import static com.uiptv.ui.RootApplication.primaryStage;
 import static com.uiptv.util.AccountType.STALKER_PORTAL;
 import static com.uiptv.util.AccountType.XTREME_API;
+import static com.uiptv.widget.UIptvAlert.showErrorAlert;
 
 public class CategoryListUI extends HBox {
     private final Account account;
@@ -93,11 +95,13 @@ public class CategoryListUI extends HBox {
 
     private synchronized void retrieveChannels(CategoryItem item) {
         try {
+            String categoryId = account.getType() == STALKER_PORTAL || account.getType() == XTREME_API ? item.getCategoryId() : item.getCategoryTitle();
+            List<Channel> channels = ChannelService.getInstance().get(categoryId, account, item.getId());
             this.getChildren().clear();
 
-            getChildren().addAll(new VBox(5, table.getSearchTextField(), table), new ChannelListUI(ChannelService.getInstance().get(account.getType() == STALKER_PORTAL || account.getType() == XTREME_API ? item.getCategoryId() : item.getCategoryTitle(), account, item.getId()), account, item.getCategoryTitle(), bookmarkChannelListUI, account.getType() == STALKER_PORTAL || account.getType() == XTREME_API ? item.getCategoryId() : item.getCategoryTitle()));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+            getChildren().addAll(new VBox(5, table.getSearchTextField(), table), new ChannelListUI(channels, account, item.getCategoryTitle(), bookmarkChannelListUI, categoryId));
+        } catch (IOException | RuntimeException e) {
+            showErrorAlert("Unable to load " + item.getCategoryTitle() + ": " + e.getMessage());
         }
     }
 
@@ -7,6 +7,8 @@ import com.uiptv.service.BookmarkService;
 import com.uiptv.service.ChannelService;
 import com.uiptv.service.ConfigurationService;
 import com.uiptv.service.PlayerService;
+import com.uiptv.service.SourceSelectionService;
+import com.uiptv.service.StreamPrefetcher;
 import com.uiptv.util.FileDownloader;
 import com.uiptv.util.Platform;
 import com.uiptv.widget.AutoGrowVBox;
@@ -27,6 +29,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static com.uiptv.model.Account.AccountAction.itv;
 import static com.uiptv.model.Account.AccountAction.series;
 import static com.uiptv.util.AccountType.STALKER_PORTAL;
 import static com.uiptv.util.AccountType.XTREME_API;
@@ -37,9 +40,10 @@ public class ChannelListUI extends HBox {
     private final String categoryTitle;
     private final BookmarkChannelListUI bookmarkChannelListUI;
     private final String categoryId;
-    SearchableTableView table = new SearchableTableView();
+    SearchableTableView<ChannelItem> table = new SearchableTableView<>();
     TableColumn<ChannelItem, String> channelName = new TableColumn("Channels");
     private final List<Channel> channelList;
+    private final StreamPrefetcher<ChannelItem> prefetcher;
 
 
     public ChannelListUI(List<Channel> channelList, Account account, String categoryTitle, BookmarkChannelListUI bookmarkChannelListUI, String categoryId) {
@@ -48,6 +52,10 @@ public class ChannelListUI extends HBox {
         this.bookmarkChannelListUI = bookmarkChannelListUI;
         this.account = account;
         this.categoryTitle = categoryTitle;
+        this.prefetcher = new StreamPrefetcher<>(item -> account, item -> {
+            Channel channel = channelOf(item);
+            return channel != null ? SourceSelectionService.getInstance().preferredCmd(account, channel) : item.getCmd();
+        });
         initWidgets();
         refresh();
 
@@ -68,7 +76,7 @@ public class ChannelListUI extends HBox {
     private void initWidgets() {
         setSpacing(10);
         table.setEditable(true);
-        table.getColumns().addAll(channelName);
+        table.getColumns().add(channelName);
         channelName.setText(categoryTitle);
         channelName.setVisible(true);
         channelName.setCellValueFactory(cellData -> cellData.getValue().channelNameProperty());
@@ -92,9 +100,13 @@ public class ChannelListUI extends HBox {
     }
 
     private void addChannelClickHandler() {
+        table.getFocusModel().focusedIndexProperty().addListener((observable, oldIndex, newIndex) -> prefetcher.focus(table.getItems(), newIndex.intValue()));
+        table.focusedProperty().addListener((observable, wasFocused, focused) -> {
+            if (!focused) prefetcher.cancel();
+        });
         table.setOnKeyReleased(event -> {
             if (event.getCode() == KeyCode.ENTER) {
-                downloadOrShowSeries((ChannelItem) table.getFocusModel().getFocusedItem());
+                downloadOrShowSeries(table.getFocusModel().getFocusedItem());
             }
         });
         table.setRowFactory(tv -> {
@@ -192,7 +204,7 @@ public class ChannelListUI extends HBox {
 
     private void play(ChannelItem item) {
         try {
-            Platform.executeCommand(ConfigurationService.getInstance().read().getDefaultPlayerPath(), PlayerService.getInstance().get(account, item.getCmd(), item.getChannelId()));
+            Platform.executeCommand(ConfigurationService.getInstance().read().getDefaultPlayerPath(), streamUrl(item, item.getChannelId()));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -200,7 +212,7 @@ public class ChannelListUI extends HBox {
 
     private void play1(ChannelItem item) {
         try {
-            Platform.executeCommand(ConfigurationService.getInstance().read().getPlayerPath1(), PlayerService.getInstance().get(account, item.getCmd(), item.getChannelId()));
+            Platform.executeCommand(ConfigurationService.getInstance().read().getPlayerPath1(), streamUrl(item, item.getChannelId()));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -208,7 +220,7 @@ public class ChannelListUI extends HBox {
 
     private void play2(ChannelItem item) {
         try {
-            Platform.executeCommand(ConfigurationService.getInstance().read().getPlayerPath2(), PlayerService.getInstance().get(account, item.getCmd(), item.getChannelId()));
+            Platform.executeCommand(ConfigurationService.getInstance().read().getPlayerPath2(), streamUrl(item, item.getChannelId()));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -216,7 +228,7 @@ public class ChannelListUI extends HBox {
 
     private void play3(ChannelItem item) {
         try {
-            Platform.executeCommand(ConfigurationService.getInstance().read().getPlayerPath3(), PlayerService.getInstance().get(account, item.getCmd(), item.getChannelId()));
+            Platform.executeCommand(ConfigurationService.getInstance().read().getPlayerPath3(), streamUrl(item, item.getChannelId()));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -224,13 +236,27 @@ public class ChannelListUI extends HBox {
 
     private void download(ChannelItem item) {
         try {
-            Map<String, String> filesToDownload = Map.of(PlayerService.getInstance().get(account, item.getCmd()), item.getChannelName() + "." + item.getContainerExtension());
+            Map<String, String> filesToDownload = Map.of(streamUrl(item, ""), item.getChannelName() + "." + item.getContainerExtension());
             FileDownloader.openDownloadWindow(filesToDownload);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Live channels go through source selection across cmd and cmd_1..cmd_3; series and vod keep create_link
+     * on the item's own cmd.
+     */
+    private String streamUrl(ChannelItem item, String series) throws IOException {
+        Channel channel = channelOf(item);
+        if (channel == null || account.getAction() != itv) return PlayerService.getInstance().get(account, item.getCmd(), series);
+        return SourceSelectionService.getInstance().get(account, channel);
+    }
+
+    private Channel channelOf(ChannelItem item) {
+        return channelList.stream().filter(c -> c.getChannelId() != null && c.getChannelId().equals(item.getChannelId()) && c.getCmd() != null && c.getCmd().equals(item.getCmd())).findFirst().orElse(null);
+    }
+
     public static class ChannelItem {
 
         private final SimpleStringProperty channelName;
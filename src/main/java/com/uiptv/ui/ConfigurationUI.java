@@ -44,6 +44,7 @@ public class ConfigurationUI extends VBox {
     private final CheckBox filterPausedCheckBox = new CheckBox("Pause filtering");
     private final CheckBox pauseCachingCheckBox = new CheckBox("Pause Caching");
     private final CheckBox darkThemeCheckBox = new CheckBox("Use Dark Theme");
+    private final CheckBox enableTimeShiftCheckBox = new CheckBox("Enable time-shift for relayed streams");
     private final UIptvText fontFamily = new UIptvText("fontFamily", "Font family. e.g. 'Helvetica', Arial, sans-serif.", 5);
     private final UIptvText fontSize = new UIptvText("fontSize", "Font size. e.g. 13pt", 5);
     private final UIptvText fontWeight = new UIptvText("fontWeight", "Font weight. e.g. bold", 5);
@@ -92,6 +93,7 @@ public class ConfigurationUI extends VBox {
             fontSize.setText(configuration.getFontSize());
             darkThemeCheckBox.setSelected(configuration.isDarkTheme());
             serverPort.setText(configuration.getServerPort());
+            enableTimeShiftCheckBox.setSelected(configuration.isEnableTimeShift());
         }
         playerPath1.setMinWidth(315);
         playerPath2.setMinWidth(315);
@@ -115,7 +117,7 @@ public class ConfigurationUI extends VBox {
         getChildren().addAll(box1, box2, box3, download, filterCategoriesWithTextContains, filterChannelWithTextContains,
                 fontFamily, fontSize, fontWeight, darkThemeCheckBox, filterPausedCheckBox,
                 new HBox(10, pauseCachingCheckBox, clearCacheButton),
-                serverButtonWrapper, saveButton);
+                serverButtonWrapper, enableTimeShiftCheckBox, saveButton);
         addSaveButtonClickHandler();
         addBrowserButton1ClickHandler();
         addBrowserButton2ClickHandler();
@@ -180,6 +182,7 @@ public class ConfigurationUI extends VBox {
                         pauseCachingCheckBox.isSelected()
                 );
                 c.setDbId(dbId);
+                c.setEnableTimeShift(enableTimeShiftCheckBox.isSelected());
                 service.save(c);
                 showMessageAlert("Successfully saved!");
                 onSaveCallback.call(null);
@@ -6,6 +6,7 @@ import com.uiptv.model.EpisodeList;
 import com.uiptv.service.BookmarkService;
 import com.uiptv.service.ConfigurationService;
 import com.uiptv.service.PlayerService;
+import com.uiptv.service.StreamPrefetcher;
 import com.uiptv.util.FileDownloader;
 import com.uiptv.util.Platform;
 import com.uiptv.widget.AutoGrowVBox;
@@ -31,12 +32,14 @@ public class EpisodesListUI extends HBox {
     SearchableTableView<EpisodeItem> table = new SearchableTableView<>();
     TableColumn<EpisodeItem, String> channelName = new TableColumn("Episodes");
     private final EpisodeList channelList;
+    private final StreamPrefetcher<EpisodeItem> prefetcher;
 
     public EpisodesListUI(EpisodeList channelList, Account account, String categoryTitle, BookmarkChannelListUI bookmarkChannelListUI) {
         this.channelList = channelList;
         this.bookmarkChannelListUI = bookmarkChannelListUI;
         this.account = account;
         this.categoryTitle = categoryTitle;
+        this.prefetcher = new StreamPrefetcher<>(item -> account, EpisodeItem::getCmd);
         initWidgets();
         refresh();
     }
@@ -81,6 +84,10 @@ public class EpisodesListUI extends HBox {
     }
 
     private void addChannelClickHandler() {
+        table.getFocusModel().focusedIndexProperty().addListener((observable, oldIndex, newIndex) -> prefetcher.focus(table.getItems(), newIndex.intValue()));
+        table.focusedProperty().addListener((observable, wasFocused, focused) -> {
+            if (!focused) prefetcher.cancel();
+        });
         table.setOnKeyReleased(event -> {
             if (event.getCode() == KeyCode.ENTER) {
                 download();
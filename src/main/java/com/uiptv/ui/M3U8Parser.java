@@ -13,20 +13,25 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import static com.uiptv.util.HttpCache.openStream;
 import static com.uiptv.util.StringUtils.EMPTY;
 import static com.uiptv.util.StringUtils.isNotBlank;
 
 public class M3U8Parser {
     public static Set<PlaylistEntry> parseUrlCategory(URL m3u8Url) {
+        return parseUrlCategory(m3u8Url, true);
+    }
+
+    public static Set<PlaylistEntry> parseUrlCategory(URL m3u8Url, boolean compression) {
         try {
             if (m3u8Url.getProtocol().startsWith("https")) {
                 HttpsURLConnection connection = (HttpsURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return parseCategory(new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)));
+                return parseCategory(new BufferedReader(new InputStreamReader(openStream(connection, compression), StandardCharsets.UTF_8)));
             } else if (m3u8Url.getProtocol().startsWith("http")) {
                 HttpURLConnection connection = (HttpURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return parseCategory(new BufferedReader(new InputStreamReader(connection.getInputStream())));
+                return parseCategory(new BufferedReader(new InputStreamReader(openStream(connection, compression))));
             }
             return parseCategory(new BufferedReader(new InputStreamReader(m3u8Url.openStream())));
         } catch (IOException e) {
@@ -45,16 +50,20 @@ public class M3U8Parser {
     }
 
     public static List<PlaylistEntry> parseChannelUrlM3U8(URL m3u8Url) {
+        return parseChannelUrlM3U8(m3u8Url, true);
+    }
+
+    public static List<PlaylistEntry> parseChannelUrlM3U8(URL m3u8Url, boolean compression) {
         try {
             if (m3u8Url.getProtocol().startsWith("https")) {
                 HttpsURLConnection connection = (HttpsURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return parseM3U8(new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)));
+                return parseM3U8(new BufferedReader(new InputStreamReader(openStream(connection, compression), StandardCharsets.UTF_8)));
             }
             if (m3u8Url.getProtocol().startsWith("http")) {
                 HttpURLConnection connection = (HttpURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return parseM3U8(new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)));
+                return parseM3U8(new BufferedReader(new InputStreamReader(openStream(connection, compression), StandardCharsets.UTF_8)));
             }
             return parseM3U8(new BufferedReader(new InputStreamReader(m3u8Url.openStream())));
         } catch (IOException e) {
@@ -3,6 +3,7 @@ package com.uiptv.ui;
 import com.uiptv.api.Callback;
 import com.uiptv.model.Account;
 import com.uiptv.service.AccountService;
+import com.uiptv.service.ChannelService;
 import com.uiptv.util.AccountType;
 import com.uiptv.widget.*;
 import javafx.application.Platform;
@@ -40,8 +41,10 @@ public class ManageAccountUI extends VBox {
     private final UIptvText deviceId1 = new UIptvText("deviceId1", "Device ID 1", 5);
     private final UIptvText deviceId2 = new UIptvText("deviceId2", "Device ID 2", 5);
     private final UIptvText signature = new UIptvText("signature", "Signature", 5);
+    private final UIptvText pageFetchConcurrency = new UIptvText("pageFetchConcurrency", "Parallel page downloads (default " + ChannelService.DEFAULT_PAGE_FETCH_CONCURRENCY + ")", 5);
     private final CheckBox pauseCachingCheckBox = new CheckBox("Pause Account Caching");
     private final CheckBox pinToTopCheckBox = new CheckBox("Pin Account on Top");
+    private final CheckBox disableCompressionCheckBox = new CheckBox("Disable Response Compression");
 
 
     final Button browserButtonM3u8Path = new Button("Browse...");
@@ -82,7 +85,7 @@ public class ManageAccountUI extends VBox {
             setupMacAddressByList(newVal);
         });
         HBox buttonWrapper2 = new HBox(10, clearButton, deleteButton, deleteAllButton);
-        getChildren().addAll(accountType, name, url, macAddress, macAddressList, serialNumber, deviceId1, deviceId2, signature, username, password, pauseCachingCheckBox, pinToTopCheckBox, saveButton, buttonWrapper2);
+        getChildren().addAll(accountType, name, url, macAddress, macAddressList, serialNumber, deviceId1, deviceId2, signature, username, password, pageFetchConcurrency, pauseCachingCheckBox, pinToTopCheckBox, disableCompressionCheckBox, saveButton, buttonWrapper2);
         addSubmitButtonClickHandler();
         addDeleteAllButtonClickHandler();
         addDeleteButtonClickHandler();
@@ -96,17 +99,17 @@ public class ManageAccountUI extends VBox {
                     getChildren().clear();
                     switch (getAccountTypeByDisplay(newValue)) {
                         case STALKER_PORTAL:
-                            getChildren().addAll(accountType, name, url, macAddress, macAddressList, serialNumber, deviceId1, deviceId2, signature, username, password, pauseCachingCheckBox, pinToTopCheckBox, saveButton, buttonWrapper2);
+                            getChildren().addAll(accountType, name, url, macAddress, macAddressList, serialNumber, deviceId1, deviceId2, signature, username, password, pageFetchConcurrency, pauseCachingCheckBox, pinToTopCheckBox, disableCompressionCheckBox, saveButton, buttonWrapper2);
                             break;
                         case M3U8_LOCAL:
-                            getChildren().addAll(accountType, name, m3u8Path, browserButtonM3u8Path, pauseCachingCheckBox, pinToTopCheckBox, saveButton, buttonWrapper2);
+                            getChildren().addAll(accountType, name, m3u8Path, browserButtonM3u8Path, pauseCachingCheckBox, pinToTopCheckBox, disableCompressionCheckBox, saveButton, buttonWrapper2);
                             break;
                         case M3U8_URL:
                         case RSS_FEED:
-                            getChildren().addAll(accountType, name, m3u8Path, epg, pauseCachingCheckBox, pinToTopCheckBox, saveButton, buttonWrapper2);
+                            getChildren().addAll(accountType, name, m3u8Path, epg, pauseCachingCheckBox, pinToTopCheckBox, disableCompressionCheckBox, saveButton, buttonWrapper2);
                             break;
                         case XTREME_API:
-                            getChildren().addAll(accountType, name, m3u8Path, username, password, epg, pauseCachingCheckBox, pinToTopCheckBox, saveButton, buttonWrapper2);
+                            getChildren().addAll(accountType, name, m3u8Path, username, password, epg, pauseCachingCheckBox, pinToTopCheckBox, disableCompressionCheckBox, saveButton, buttonWrapper2);
                             break;
                     }
                 });
@@ -141,7 +144,7 @@ public class ManageAccountUI extends VBox {
     }
 
     private void clearAll() {
-        Arrays.stream(new UIptvText[]{name, username, password, url, serialNumber, deviceId1, deviceId2, signature, m3u8Path, epg}).forEach(TextInputControl::clear);
+        Arrays.stream(new UIptvText[]{name, username, password, url, serialNumber, deviceId1, deviceId2, signature, m3u8Path, epg, pageFetchConcurrency}).forEach(TextInputControl::clear);
         macAddressList.clear();
         macAddress.getItems().clear();
         macAddress.setValue(null);
@@ -149,6 +152,7 @@ public class ManageAccountUI extends VBox {
         accountType.setValue(STALKER_PORTAL.getDisplay());
         pauseCachingCheckBox.setSelected(false);
         pinToTopCheckBox.setSelected(false);
+        disableCompressionCheckBox.setSelected(false);
     }
 
     private void addSubmitButtonClickHandler() {
@@ -158,9 +162,12 @@ public class ManageAccountUI extends VBox {
                     showErrorAlert("Name cannot be empty");
                     return;
                 }
-                service.save(new Account(name.getText(), username.getText(), password.getText(), url.getText(),
+                Account account = new Account(name.getText(), username.getText(), password.getText(), url.getText(),
                         macAddress.getValue() != null ? macAddress.getValue().toString() : "", macAddressList.getText(), serialNumber.getText(), deviceId1.getText(), deviceId2.getText(), signature.getText(),
-                        getAccountTypeByDisplay(accountType.getValue() != null && isNotBlank(accountType.getValue().toString()) ? accountType.getValue().toString() : AccountType.STALKER_PORTAL.getDisplay()), epg.getText(), m3u8Path.getText(), pauseCachingCheckBox.isSelected(), pinToTopCheckBox.isSelected()));
+                        getAccountTypeByDisplay(accountType.getValue() != null && isNotBlank(accountType.getValue().toString()) ? accountType.getValue().toString() : AccountType.STALKER_PORTAL.getDisplay()), epg.getText(), m3u8Path.getText(), pauseCachingCheckBox.isSelected(), pinToTopCheckBox.isSelected());
+                account.setPageFetchConcurrency(isBlank(pageFetchConcurrency.getText()) ? 0 : Integer.parseInt(pageFetchConcurrency.getText().trim()));
+                account.setDisableCompression(disableCompressionCheckBox.isSelected());
+                service.save(account);
                 clearAll();
                 showMessageAlert("Your Account details have been successfully saved!");
                 onSaveCallback.call(null);
@@ -230,10 +237,12 @@ public class ManageAccountUI extends VBox {
         deviceId1.setText(account.getDeviceId1());
         deviceId2.setText(account.getDeviceId2());
         signature.setText(account.getSignature());
+        pageFetchConcurrency.setText(account.getPageFetchConcurrency() > 0 ? String.valueOf(account.getPageFetchConcurrency()) : "");
         epg.setText(account.getEpg());
         m3u8Path.setText(account.getM3u8Path());
         pauseCachingCheckBox.setSelected(account.isPauseCaching());
         pinToTopCheckBox.setSelected(account.isPinToTop());
+        disableCompressionCheckBox.setSelected(account.isDisableCompression());
         accountType.setValue(account.getType().getDisplay());
     }
 }
\ No newline at end of file
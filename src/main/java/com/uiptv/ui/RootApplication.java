@@ -1,9 +1,11 @@
 package com.uiptv.ui;
 
 
+import com.uiptv.db.SQLConnection;
 import com.uiptv.model.Account;
 import com.uiptv.model.Configuration;
 import com.uiptv.server.UIptvServer;
+import com.uiptv.service.AccountHealthService;
 import com.uiptv.service.ConfigurationService;
 import com.uiptv.widget.CollapsedTitledPane;
 import com.uiptv.widget.ExpendedTitledPane;
@@ -19,6 +21,7 @@ import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Arrays;
 
 import static com.uiptv.util.StringUtils.isNotBlank;
@@ -30,6 +33,7 @@ public class RootApplication extends Application {
 
     public static void main(String[] args) {
         LogsUI.logInfoNoRefresh("Aplikacja uruchomiona.");
+        AccountHealthService.getInstance().start(Duration.ofMinutes(1), Duration.ofMinutes(15));
         if (args != null && Arrays.stream(args).anyMatch(s -> s.toLowerCase().contains("headless"))) {
             try {
                 UIptvServer.start();
@@ -47,6 +51,8 @@ public class RootApplication extends Application {
             } catch (IOException e) {
                 LogsUI.logError("Error at stop server: " + e.getMessage(), e);
                 throw new RuntimeException(e);
+            } finally {
+                SQLConnection.shutdown();
             }
         }));
     }
@@ -125,6 +131,8 @@ public class RootApplication extends Application {
             UIptvAlert.showMessage("UIPTV Shutting down");
         } catch (IOException e) {
             LogsUI.logError("Error in stop: " + e.getMessage(), e);
+        } finally {
+            SQLConnection.shutdown();
         }
         super.stop();
     }
@@ -13,9 +13,13 @@ public class RssParser {
         return playlistEntries;
     }
     public static List<PlaylistEntry> parse(String rssUrl) {
+        return parse(rssUrl, true);
+    }
+
+    public static List<PlaylistEntry> parse(String rssUrl, boolean compression) {
         List<PlaylistEntry> playlistEntries = new ArrayList<>();
         try {
-            for (RssFeedReader.RssItem item : RssFeedReader.getItems(rssUrl)) {
+            for (RssFeedReader.RssItem item : RssFeedReader.getItems(rssUrl, compression)) {
                 String lUUID = String.format("%040d", new BigInteger(UUID.randomUUID().toString().replace("-", ""), 16));
                 playlistEntries.add(new PlaylistEntry(
                         lUUID,
@@ -15,6 +15,7 @@ import java.util.List;
 import java.util.Map;
 
 import static com.uiptv.model.Account.AccountAction.series;
+import static com.uiptv.util.HttpCache.openStream;
 import static com.uiptv.util.StringUtils.getXtremeStreamUrl;
 import static com.uiptv.util.StringUtils.safeGetString;
 import static com.uiptv.widget.UIptvAlert.showError;
@@ -29,11 +30,11 @@ public class XtremeParser {
             if (account.getM3u8Path().startsWith("https")) {
                 HttpsURLConnection connection = (HttpsURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return doParseCategories(readFullyAsString(connection.getInputStream(), "UTF-8"));
+                return doParseCategories(readFullyAsString(openStream(connection, !account.isDisableCompression()), "UTF-8"));
             } else if (account.getM3u8Path().startsWith("http")) {
                 HttpURLConnection connection = (HttpURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return doParseCategories(readFullyAsString(connection.getInputStream(), "UTF-8"));
+                return doParseCategories(readFullyAsString(openStream(connection, !account.isDisableCompression()), "UTF-8"));
             }
             return doParseCategories(readFullyAsString(m3u8Url.openStream(), "UTF-8"));
         } catch (IOException e) {
@@ -50,11 +51,11 @@ public class XtremeParser {
             if (account.getM3u8Path().startsWith("https")) {
                 HttpsURLConnection connection = (HttpsURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return doParseChannels(readFullyAsString(connection.getInputStream(), "UTF-8"), account);
+                return doParseChannels(readFullyAsString(openStream(connection, !account.isDisableCompression()), "UTF-8"), account);
             } else if (account.getM3u8Path().startsWith("http")) {
                 HttpURLConnection connection = (HttpURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return doParseChannels(readFullyAsString(connection.getInputStream(), "UTF-8"), account);
+                return doParseChannels(readFullyAsString(openStream(connection, !account.isDisableCompression()), "UTF-8"), account);
             }
             return doParseChannels(readFullyAsString(m3u8Url.openStream(), "UTF-8"), account);
         } catch (IOException e) {
@@ -71,11 +72,11 @@ public class XtremeParser {
             if (account.getM3u8Path().startsWith("https")) {
                 HttpsURLConnection connection = (HttpsURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return doParseEpisodes(readFullyAsString(connection.getInputStream(), "UTF-8"), account);
+                return doParseEpisodes(readFullyAsString(openStream(connection, !account.isDisableCompression()), "UTF-8"), account);
             } else if (account.getM3u8Path().startsWith("http")) {
                 HttpURLConnection connection = (HttpURLConnection) m3u8Url.openConnection();
                 connection.setConnectTimeout(10000);
-                return doParseEpisodes(readFullyAsString(connection.getInputStream(), "UTF-8"), account);
+                return doParseEpisodes(readFullyAsString(openStream(connection, !account.isDisableCompression()), "UTF-8"), account);
             }
             return doParseEpisodes(readFullyAsString(m3u8Url.openStream(), "UTF-8"), account);
         } catch (IOException e) {
@@ -153,7 +154,9 @@ public class XtremeParser {
     }
 
     public static String readFullyAsString(InputStream inputStream, String encoding) throws IOException {
-        return readFully(inputStream).toString(encoding);
+        try (inputStream) {
+            return readFully(inputStream).toString(encoding);
+        }
     }
 
     private static ByteArrayOutputStream readFully(InputStream inputStream) throws IOException {
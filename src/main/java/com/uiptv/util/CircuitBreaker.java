@@ -0,0 +1,107 @@
+package com.uiptv.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-host circuit breaker. After a run of consecutive failures the circuit opens and requests to that host
+ * are refused immediately; once the cool-down has passed a single trial request is let through and its
+ * outcome decides whether the circuit closes again. A trial that ends without an outcome, or takes longer than
+ * any request can, counts as failed, so the circuit never waits on a verdict that is not coming.
+ */
+public class CircuitBreaker {
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    // tunable at launch with -Duiptv.http.breakerThreshold and -Duiptv.http.breakerOpenMillis
+    private static final int FAILURE_THRESHOLD = Math.max(1, Integer.getInteger("uiptv.http.breakerThreshold", 5));
+    private static final long OPEN_MILLIS = Long.getLong("uiptv.http.breakerOpenMillis", 30_000);
+
+    private final String host;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private Thread trialOwner;
+    private long trialStartedAt;
+
+    private CircuitBreaker(String host) {
+        this.host = host;
+    }
+
+    public static CircuitBreaker forUrl(String url) {
+        return breakers.computeIfAbsent(HttpTransport.hostKey(url), CircuitBreaker::new);
+    }
+
+    public static Map<String, CircuitBreaker> getBreakers() {
+        return new TreeMap<>(breakers);
+    }
+
+    public synchronized boolean allowRequest() {
+        long now = System.currentTimeMillis();
+        if (state == State.HALF_OPEN && now - trialStartedAt >= trialTimeoutMillis()) {
+            reopen("its trial request timed out");
+        }
+        if (state == State.OPEN && now - openedAt >= OPEN_MILLIS) {
+            state = State.HALF_OPEN;
+            trialOwner = Thread.currentThread();
+            trialStartedAt = now;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            System.out.println("Circuit for " + host + " closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialOwner = null;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD)) {
+            reopen("after " + consecutiveFailures + " consecutive failures");
+        }
+    }
+
+    /**
+     * Ends a request that produced no outcome, for example because it was interrupted. When it was the trial
+     * request the circuit opens again for a fresh cool-down; any other request leaves the circuit as it is.
+     */
+    public synchronized void recordAbandoned() {
+        if (state == State.HALF_OPEN && trialOwner == Thread.currentThread()) {
+            reopen("its trial request was abandoned");
+        }
+    }
+
+    private void reopen(String reason) {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        trialOwner = null;
+        System.out.println("Circuit for " + host + " opened " + reason);
+    }
+
+    private static long trialTimeoutMillis() {
+        return HttpTransport.getConnectTimeout().plus(HttpTransport.getReadTimeout()).toMillis();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker{" +
+                "host='" + host + '\'' +
+                ", state=" + state +
+                ", consecutiveFailures=" + consecutiveFailures +
+                '}';
+    }
+}
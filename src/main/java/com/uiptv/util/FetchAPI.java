@@ -1,46 +1,160 @@
 package com.uiptv.util;
 
+import com.uiptv.api.ResponseStreamHandler;
 import com.uiptv.model.Account;
+import com.uiptv.service.HandshakeService;
 import com.uiptv.ui.LogsUI;
 import org.json.JSONObject;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
-import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 import static com.uiptv.util.LogUtil.httpLog;
+import static com.uiptv.util.StringUtils.isNotBlank;
 import static java.net.URLEncoder.encode;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class FetchAPI {
+    private static final Set<String> IDEMPOTENT_ACTIONS = Set.of("handshake", "get_profile", "get_main_info", "get_genres", "get_categories", "get_ordered_list");
+    private static final String AUTH_FAILURE = "Authorization failed";
+    // tunable at launch with -Duiptv.http.maxAttempts, -Duiptv.http.baseBackoffMillis and -Duiptv.http.maxBackoffMillis
+    private static final int MAX_ATTEMPTS = Math.max(1, Integer.getInteger("uiptv.http.maxAttempts", 3));
+    private static final long BASE_BACKOFF_MILLIS = Long.getLong("uiptv.http.baseBackoffMillis", 500);
+    private static final long MAX_BACKOFF_MILLIS = Long.getLong("uiptv.http.maxBackoffMillis", 8000);
+
     public static String fetch(Map<String, String> params, final Account account) {
-        try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(account.getServerPortalUrl()))
-                    .headers(headers(account.getUrl(), account))
-                    .POST(HttpRequest.BodyPublishers.ofString(mapToString(params))).version(HttpClient.Version.HTTP_1_1).build();
-            HttpResponse<String> response = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).version(HttpClient.Version.HTTP_1_1)
-                    .followRedirects(HttpClient.Redirect.ALWAYS)
-                    .build()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
-            httpLog(account.getServerPortalUrl(), request, response, params);
-            if (response.statusCode() == HttpURLConnection.HTTP_OK) {
-                return response.body();
+        String body = execute(params, account, HttpResponse.BodyHandlers.ofInputStream(), response -> {
+            String text = HttpCompression.readString(response);
+            if (isAuthFailure(text)) throw new AuthFailure();
+            return text;
+        });
+        return body == null ? StringUtils.EMPTY : body;
+    }
+
+    public static <T> T fetch(Map<String, String> params, final Account account, ResponseStreamHandler<T> handler) {
+        return execute(params, account, HttpResponse.BodyHandlers.ofInputStream(), response -> {
+            try (InputStream body = new BufferedInputStream(HttpCompression.decode(response))) {
+                body.mark(AUTH_FAILURE.length());
+                byte[] head = body.readNBytes(AUTH_FAILURE.length());
+                if (isAuthFailure(new String(head, UTF_8))) throw new AuthFailure();
+                body.reset();
+                return handler.onResponse(body);
             }
-        } catch (Exception ex) {
-            LogsUI.logError("Network Error: " + ex.getMessage(), ex);
-            System.out.print("Network Error: " + ex.getMessage());
+        });
+    }
+
+    /**
+     * Sends the request through the host's circuit breaker. Idempotent actions are retried with exponential
+     * backoff and full jitter on I/O errors, broken response bodies and 429/5xx answers. A Stalker portal that
+     * no longer accepts the token (it is revoked whenever the MAC handshakes again) gets one new handshake and
+     * the request is sent once more.
+     */
+    private static <B, T> T execute(Map<String, String> params, Account account, HttpResponse.BodyHandler<B> bodyHandler, ResponseReader<B, T> reader) {
+        CircuitBreaker breaker = CircuitBreaker.forUrl(account.getServerPortalUrl());
+        int attempts = IDEMPOTENT_ACTIONS.contains(params.get("action")) ? MAX_ATTEMPTS : 1;
+        boolean reauthenticated = !canReauthenticate(params, account);
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.allowRequest()) {
+                System.out.println("Portal " + breaker.getHost() + " is unavailable, skipping " + params.get("action"));
+                return null;
+            }
+            Exception failure;
+            String token = account.getToken();
+            try {
+                HttpRequest request = HttpTransport.newRequest(account.getServerPortalUrl())
+                        .headers(headers(account.getUrl(), account))
+                        .POST(HttpRequest.BodyPublishers.ofString(mapToString(params))).build();
+                HttpResponse<B> response = HttpTransport.send(request, bodyHandler);
+                httpLog(account.getServerPortalUrl(), request, response, params);
+                int status = response.statusCode();
+                if (status == HttpURLConnection.HTTP_OK) {
+                    T result = reader.read(response);
+                    breaker.recordSuccess();
+                    return result;
+                }
+                if (response.body() instanceof InputStream body) body.close();
+                if (status == HttpURLConnection.HTTP_UNAUTHORIZED || status == HttpURLConnection.HTTP_FORBIDDEN) {
+                    throw new AuthFailure();
+                }
+                if (status != 429 && status < 500) {
+                    breaker.recordSuccess();
+                    return null;
+                }
+                breaker.recordFailure();
+                failure = new IOException("HTTP " + status);
+            } catch (AuthFailure ex) {
+                // the portal answered, so the host itself is fine
+                breaker.recordSuccess();
+                if (reauthenticated) {
+                    System.out.println("Portal " + breaker.getHost() + " refused the token for " + params.get("action"));
+                    return null;
+                }
+                reauthenticated = true;
+                HandshakeService.getInstance().reauthenticate(account, token);
+                attempt--;
+                continue;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception ex) {
+                breaker.recordFailure();
+                failure = ex;
+            } finally {
+                // a no-op once an outcome was recorded; otherwise a trial request must not leave the circuit half-open
+                breaker.recordAbandoned();
+            }
+            if (attempt >= attempts) {
+                LogsUI.logError("Network Error: " + failure.getMessage(), failure);
+                System.out.print("Network Error: " + failure.getMessage());
+                return null;
+            }
+            try {
+                Thread.sleep(backoffMillis(attempt));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private static long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private interface ResponseReader<B, T> {
+        T read(HttpResponse<B> response) throws IOException;
+    }
+
+    private static boolean canReauthenticate(Map<String, String> params, Account account) {
+        return account.getType() == AccountType.STALKER_PORTAL && !"handshake".equals(params.get("action")) && isNotBlank(account.getToken());
+    }
+
+    /**
+     * Stalker portals answer a request carrying a revoked or expired token with HTTP 200 and this text.
+     */
+    private static boolean isAuthFailure(String body) {
+        return body != null && body.stripLeading().startsWith(AUTH_FAILURE);
+    }
+
+    private static class AuthFailure extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private AuthFailure() {
+            super("Authorization failed");
         }
-        return StringUtils.EMPTY;
     }
 
     private static String[] headers(String url, Account account) {
@@ -54,7 +168,7 @@ public class FetchAPI {
         if (account.isConnected()) addHeader(headers, "Authorization", "Bearer " + account.getToken());
         addHeader(headers, "Cookie", "mac=" + encode(account.getMacAddress(), UTF_8) + "; stb_lang=en; timezone=" + encode("Europe/Amsterdam", UTF_8) + ";");
 //        addHeader(headers, "Expect", "100-continue");
-//        addHeader(headers, "Accept-Encoding", "gzip, deflate");
+        if (!account.isDisableCompression()) addHeader(headers, "Accept-Encoding", HttpCompression.ACCEPT_ENCODING);
         return headers.toArray(new String[0]);
     }
 
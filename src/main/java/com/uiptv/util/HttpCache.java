@@ -0,0 +1,155 @@
+package com.uiptv.util;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * On-disk conditional-GET cache for playlist and API downloads. Responses carrying an ETag or Last-Modified
+ * header are written to disk while the caller reads them; later requests revalidate with If-None-Match /
+ * If-Modified-Since and a 304 is answered from the stored copy.
+ */
+public class HttpCache {
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+
+    public static InputStream openStream(HttpURLConnection connection, boolean compression) throws IOException {
+        Path dir = Paths.get(Platform.getUserHomeDirPath(), "http-cache");
+        String key = key(connection.getURL().toString());
+        Path body = dir.resolve(key + ".body");
+        Path meta = dir.resolve(key + ".meta");
+        Properties validators = readValidators(body, meta);
+        if (validators != null) {
+            if (validators.getProperty(ETAG) != null) {
+                connection.setRequestProperty("If-None-Match", validators.getProperty(ETAG));
+            }
+            if (validators.getProperty(LAST_MODIFIED) != null) {
+                connection.setRequestProperty("If-Modified-Since", validators.getProperty(LAST_MODIFIED));
+            }
+        }
+        InputStream in = HttpTransport.openStream(connection, compression);
+        if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED && validators != null) {
+            in.close();
+            return new BufferedInputStream(Files.newInputStream(body), 65536);
+        }
+        String etag = connection.getHeaderField("ETag");
+        String lastModified = connection.getHeaderField("Last-Modified");
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK || (etag == null && lastModified == null)) {
+            return in;
+        }
+        Properties fresh = new Properties();
+        if (etag != null) fresh.setProperty(ETAG, etag);
+        if (lastModified != null) fresh.setProperty(LAST_MODIFIED, lastModified);
+        try {
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, key, ".part");
+            return new CachingInputStream(in, temp, body, meta, fresh);
+        } catch (IOException e) {
+            System.out.println("HTTP cache unavailable: " + e.getMessage());
+            return in;
+        }
+    }
+
+    public static void clear() {
+        Path dir = Paths.get(Platform.getUserHomeDirPath(), "http-cache");
+        if (!Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(f -> f.toFile().delete());
+        } catch (IOException e) {
+            System.out.println("Unable to clear HTTP cache: " + e.getMessage());
+        }
+    }
+
+    private static Properties readValidators(Path body, Path meta) {
+        if (!Files.isRegularFile(body) || !Files.isRegularFile(meta)) return null;
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            return null;
+        }
+        return properties.isEmpty() ? null : properties;
+    }
+
+    private static String key(String url) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Copies everything the caller reads into a temporary file, which replaces the cached entry only if the
+     * stream was consumed to the end.
+     */
+    private static class CachingInputStream extends FilterInputStream {
+        private final OutputStream copy;
+        private final Path temp, body, meta;
+        private final Properties validators;
+        private boolean complete, closed;
+
+        private CachingInputStream(InputStream in, Path temp, Path body, Path meta, Properties validators) throws IOException {
+            super(in);
+            this.copy = new BufferedOutputStream(Files.newOutputStream(temp), 65536);
+            this.temp = temp;
+            this.body = body;
+            this.meta = meta;
+            this.validators = validators;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b == -1) complete = true;
+            else copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n == -1) complete = true;
+            else copy.write(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes would be missing from the copy, so read them through
+            return read(new byte[(int) Math.min(n, 8192)]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                try {
+                    copy.close();
+                    if (complete) {
+                        Files.move(temp, body, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        try (Writer writer = Files.newBufferedWriter(meta, StandardCharsets.UTF_8)) {
+                            validators.store(writer, null);
+                        }
+                    }
+                } catch (IOException e) {
+                    System.out.println("Unable to store HTTP cache entry: " + e.getMessage());
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.uiptv.util;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Content-encoding negotiation for portal and playlist downloads. Requests advertise gzip/deflate and
+ * responses are inflated on the fly, so the compressed payload is never buffered as a whole.
+ */
+public class HttpCompression {
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    public static InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if (in == null || StringUtils.isBlank(contentEncoding)) return in;
+        String encoding = contentEncoding.trim().toLowerCase();
+        if (encoding.contains("gzip")) {
+            return new GZIPInputStream(in, 8192);
+        }
+        if (encoding.contains("deflate")) {
+            // servers disagree on whether "deflate" is zlib-wrapped or raw, so look at the header
+            PushbackInputStream pushback = new PushbackInputStream(in, 2);
+            byte[] header = new byte[2];
+            int read = pushback.readNBytes(header, 0, 2);
+            if (read > 0) pushback.unread(header, 0, read);
+            boolean zlib = read == 2 && (header[0] & 0x0F) == 8 && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+            return new InflaterInputStream(pushback, new Inflater(!zlib), 8192);
+        }
+        return in;
+    }
+
+    public static InputStream openStream(HttpURLConnection connection, boolean compression) throws IOException {
+        if (compression) {
+            connection.setRequestProperty("Accept-Encoding", ACCEPT_ENCODING);
+        }
+        return decode(connection.getInputStream(), connection.getContentEncoding());
+    }
+
+    public static InputStream decode(HttpResponse<InputStream> response) throws IOException {
+        return decode(response.body(), response.headers().firstValue("Content-Encoding").orElse(null));
+    }
+
+    /**
+     * Reads a response taken with {@link HttpResponse.BodyHandlers#ofInputStream()} as text. The body is inflated
+     * here, on the calling thread, and never on the HTTP client's executor.
+     */
+    public static String readString(HttpResponse<InputStream> response) throws IOException {
+        Charset charset = charset(response.headers().firstValue("Content-Type").orElse(null));
+        try (InputStream body = response.body(); InputStream in = decode(body, response.headers().firstValue("Content-Encoding").orElse(null))) {
+            String text = new String(in.readAllBytes(), charset);
+            // the inflater stops at the compressed stream's end; read on to the end of the response so closing
+            // the body does not cancel the exchange and lose the connection
+            body.transferTo(OutputStream.nullOutputStream());
+            return text;
+        }
+    }
+
+    private static Charset charset(String contentType) {
+        try {
+            if (contentType != null && contentType.toLowerCase().contains("charset=")) {
+                return Charset.forName(contentType.substring(contentType.toLowerCase().indexOf("charset=") + 8).split(";")[0].replace("\"", "").trim());
+            }
+        } catch (Exception ignored) {
+        }
+        return UTF_8;
+    }
+}
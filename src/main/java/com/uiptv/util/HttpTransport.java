@@ -0,0 +1,277 @@
+package com.uiptv.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived HTTP transport with one {@link HttpClient} per portal host, so keep-alive connections,
+ * TLS sessions and the client's selector thread are reused across requests instead of being rebuilt
+ * for every call.
+ */
+public class HttpTransport {
+    private static final Map<String, HttpClient> clients = new ConcurrentHashMap<>();
+    private static final Map<String, HostStats> stats = new ConcurrentHashMap<>();
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ThreadFactory threadFactory = r -> {
+        Thread t = new Thread(r, "uiptv-http-" + threadCounter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    };
+    // tunable at launch with -Duiptv.http.connectTimeoutSeconds, -Duiptv.http.readTimeoutSeconds and
+    // -Duiptv.http.threads (a fixed pool of that many threads for the clients instead of the shared cached one)
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(Long.getLong("uiptv.http.connectTimeoutSeconds", 10));
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(Long.getLong("uiptv.http.readTimeoutSeconds", 30));
+    // callers run blocking requests on this one, so it must never run out of threads
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(threadFactory);
+    private static final ExecutorService CLIENT_EXECUTOR = Integer.getInteger("uiptv.http.threads", 0) > 0
+            ? Executors.newFixedThreadPool(Integer.getInteger("uiptv.http.threads"), threadFactory) : EXECUTOR;
+
+    public static Duration getConnectTimeout() {
+        return CONNECT_TIMEOUT;
+    }
+
+    public static Duration getReadTimeout() {
+        return READ_TIMEOUT;
+    }
+
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    public static HttpRequest.Builder newRequest(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(READ_TIMEOUT)
+                .version(HttpClient.Version.HTTP_1_1);
+    }
+
+    /**
+     * Sends the request under the host's rate limiter. When the body is an {@link InputStream} the limiter slot
+     * is held, and the request's latency measured, until the caller closes that stream, so a slow body counts
+     * against the host just like a slow answer.
+     */
+    public static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) throws IOException, InterruptedException {
+        return send(request, bodyHandler, true);
+    }
+
+    /**
+     * Opens an unbounded media stream. The limiter governs opening it, but its slot is given back at the
+     * response headers: a live stream stays open for as long as it is watched and must not hold the host's
+     * slot, or its duration as latency, for that long.
+     */
+    public static HttpResponse<InputStream> sendStream(HttpRequest request) throws IOException, InterruptedException {
+        return send(request, HttpResponse.BodyHandlers.ofInputStream(), false);
+    }
+
+    private static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, boolean holdUntilClosed) throws IOException, InterruptedException {
+        String host = hostKey(request.uri());
+        HostStats hostStats = stats.computeIfAbsent(host, HostStats::new);
+        PortalRateLimiter limiter = PortalRateLimiter.forHost(host);
+        Lease lease = new Lease(hostStats, limiter, limiter.acquire());
+        boolean handedOff = false;
+        try {
+            HttpResponse<T> response = client(host).send(request, holdUntilClosed ? info -> HttpResponse.BodySubscribers.mapping(bodyHandler.apply(info), lease::hold) : bodyHandler);
+            lease.status = response.statusCode();
+            handedOff = lease.held;
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException ex) {
+            hostStats.failures.incrementAndGet();
+            throw ex;
+        } finally {
+            if (!handedOff) lease.release();
+        }
+    }
+
+    /**
+     * Opens a legacy {@link HttpURLConnection} under the same per-host rate limiter as {@link #send}. The slot is
+     * held until the returned stream is closed.
+     */
+    public static InputStream openStream(HttpURLConnection connection, boolean compression) throws IOException {
+        String host = hostKey(connection.getURL());
+        HostStats hostStats = stats.computeIfAbsent(host, HostStats::new);
+        PortalRateLimiter limiter = PortalRateLimiter.forHost(host);
+        Lease lease;
+        try {
+            lease = new Lease(hostStats, limiter, limiter.acquire());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+        try {
+            InputStream in = HttpCompression.openStream(connection, compression);
+            lease.status = connection.getResponseCode();
+            return lease.hold(in);
+        } catch (IOException | RuntimeException ex) {
+            hostStats.failures.incrementAndGet();
+            try {
+                lease.status = connection.getResponseCode();
+            } catch (IOException ignored) {
+            }
+            lease.release();
+            throw ex;
+        }
+    }
+
+    public static HttpClient client(String host) {
+        return clients.computeIfAbsent(host, h -> HttpClient.newBuilder()
+                .connectTimeout(CONNECT_TIMEOUT)
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.ALWAYS)
+                .executor(CLIENT_EXECUTOR)
+                .build());
+    }
+
+    public static Map<String, HostStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    public static HostStats getStats(String url) {
+        return stats.get(hostKey(URI.create(url)));
+    }
+
+    public static PortalRateLimiter getLimiter(String url) {
+        return PortalRateLimiter.forHost(hostKey(URI.create(url)));
+    }
+
+    public static void logStats() {
+        getStats().values().forEach(s -> System.out.println("HTTP " + s));
+        PortalRateLimiter.getLimiters().values().forEach(l -> System.out.println("HTTP " + l));
+    }
+
+    /**
+     * Prints the host's request counts and current limiter state to the console.
+     */
+    public static void logStats(String url) {
+        HostStats hostStats = getStats(url);
+        if (hostStats != null) System.out.println("HTTP " + hostStats + " " + getLimiter(url));
+    }
+
+    public static String hostKey(String url) {
+        return hostKey(URI.create(url));
+    }
+
+    private static String hostKey(URI uri) {
+        return (uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort()).toLowerCase();
+    }
+
+    private static String hostKey(URL url) {
+        return (url.getProtocol() + "://" + url.getHost() + ":" + url.getPort()).toLowerCase();
+    }
+
+    /**
+     * One request's limiter slot and in-flight count, given back exactly once: at the response headers, or when
+     * the caller closes the body stream it was handed.
+     */
+    private static class Lease {
+        private final HostStats hostStats;
+        private final PortalRateLimiter limiter;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile int status = -1;
+        private volatile boolean held;
+
+        private Lease(HostStats hostStats, PortalRateLimiter limiter, long start) {
+            this.hostStats = hostStats;
+            this.limiter = limiter;
+            this.start = start;
+            hostStats.begin();
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T hold(T body) {
+            if (!(body instanceof InputStream in)) return body;
+            held = true;
+            return (T) new FilterInputStream(in) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release();
+                    }
+                }
+            };
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                hostStats.end();
+                limiter.release(start, status);
+            }
+        }
+    }
+
+    public static class HostStats {
+        private final String host;
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+
+        HostStats(String host) {
+            this.host = host;
+        }
+
+        private void begin() {
+            requests.incrementAndGet();
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        }
+
+        private void end() {
+            inFlight.decrementAndGet();
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * The most requests that were in flight to the host at once, which bounds how many connections its
+         * keep-alive pool ever needed.
+         */
+        public int getPeakInFlight() {
+            return peakInFlight.get();
+        }
+
+        @Override
+        public String toString() {
+            return "HostStats{" +
+                    "host='" + host + '\'' +
+                    ", requests=" + getRequests() +
+                    ", failures=" + getFailures() +
+                    ", inFlight=" + getInFlight() +
+                    ", peakInFlight=" + getPeakInFlight() +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.uiptv.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal pull-based JSON tokenizer. It reads straight from a {@link Reader} through a fixed buffer and
+ * never materialises the document, so multi-megabyte portal responses can be decoded item by item.
+ */
+public class JsonPullParser implements Closeable {
+    public enum Token {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME, STRING, NUMBER, TRUE, FALSE, NULL, END_DOCUMENT
+    }
+
+    private static final int MAX_DEPTH = 256;
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final boolean[] objectStack = new boolean[MAX_DEPTH];
+    private final StringBuilder text = new StringBuilder();
+    private int pos, limit, depth;
+    private boolean expectName;
+    private Token token;
+
+    public JsonPullParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    public Token next() throws IOException {
+        while (true) {
+            int c = nextNonWhitespace();
+            switch (c) {
+                case -1:
+                    return token = Token.END_DOCUMENT;
+                case '{':
+                    push(true);
+                    expectName = true;
+                    return token = Token.START_OBJECT;
+                case '[':
+                    push(false);
+                    expectName = false;
+                    return token = Token.START_ARRAY;
+                case '}':
+                    pop();
+                    return token = Token.END_OBJECT;
+                case ']':
+                    pop();
+                    return token = Token.END_ARRAY;
+                case ',':
+                    expectName = depth > 0 && objectStack[depth - 1];
+                    continue;
+                case ':':
+                    continue;
+                case '"':
+                    readString();
+                    if (expectName) {
+                        expectName = false;
+                        return token = Token.FIELD_NAME;
+                    }
+                    return token = Token.STRING;
+                case 't':
+                    readLiteral("rue");
+                    return token = Token.TRUE;
+                case 'f':
+                    readLiteral("alse");
+                    return token = Token.FALSE;
+                case 'n':
+                    readLiteral("ull");
+                    return token = Token.NULL;
+                default:
+                    if (c == '-' || (c >= '0' && c <= '9')) {
+                        readNumber((char) c);
+                        return token = Token.NUMBER;
+                    }
+                    throw new IOException("Unexpected character '" + (char) c + "' in JSON");
+            }
+        }
+    }
+
+    public Token getToken() {
+        return token;
+    }
+
+    public String getText() {
+        switch (token) {
+            case FIELD_NAME:
+            case STRING:
+            case NUMBER:
+                return text.toString();
+            case TRUE:
+                return "true";
+            case FALSE:
+                return "false";
+            default:
+                return null;
+        }
+    }
+
+    public boolean isScalar() {
+        return token == Token.STRING || token == Token.NUMBER || token == Token.TRUE || token == Token.FALSE || token == Token.NULL;
+    }
+
+    /**
+     * Skips the value the parser is positioned on, including every nested element of an object or array.
+     */
+    public void skipValue() throws IOException {
+        if (token != Token.START_OBJECT && token != Token.START_ARRAY) return;
+        int target = depth - 1;
+        while (depth > target && next() != Token.END_DOCUMENT) ;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void push(boolean object) throws IOException {
+        if (depth == MAX_DEPTH) throw new IOException("JSON nested too deeply");
+        objectStack[depth++] = object;
+    }
+
+    private void pop() {
+        if (depth > 0) depth--;
+        expectName = false;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) throw new IOException("Unterminated JSON string");
+            if (c == '"') return;
+            if (c != '\\') {
+                text.append((char) c);
+                continue;
+            }
+            int escaped = read();
+            switch (escaped) {
+                case 'b' -> text.append('\b');
+                case 'f' -> text.append('\f');
+                case 'n' -> text.append('\n');
+                case 'r' -> text.append('\r');
+                case 't' -> text.append('\t');
+                case 'u' -> {
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(read(), 16);
+                        if (digit < 0) throw new IOException("Invalid unicode escape in JSON string");
+                        code = (code << 4) + digit;
+                    }
+                    text.append((char) code);
+                }
+                case -1 -> throw new IOException("Unterminated JSON string");
+                default -> text.append((char) escaped);
+            }
+        }
+    }
+
+    private void readNumber(char first) throws IOException {
+        text.setLength(0);
+        text.append(first);
+        while (true) {
+            int c = read();
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                text.append((char) c);
+            } else {
+                if (c != -1) pos--;
+                return;
+            }
+        }
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            if (read() != rest.charAt(i)) throw new IOException("Invalid JSON literal");
+        }
+    }
+}
@@ -5,7 +5,7 @@ import java.net.http.HttpResponse;
 import java.util.Map;
 
 public class LogUtil {
-    public static void httpLog(String url, HttpRequest request, HttpResponse<String> response, Map<String, String> params) {
+    public static void httpLog(String url, HttpRequest request, HttpResponse<?> response, Map<String, String> params) {
         System.out.println("URL: " + url);
         System.out.println();
 //        System.out.println("==========================================Status Code==========================================");
@@ -32,7 +32,7 @@ public class LogUtil {
         System.out.println();
         System.out.println("==========================================Response Body==========================================");
         System.out.println();
-        System.out.print(response.body());
+        System.out.print(response.body() instanceof String ? response.body() : "<streamed>");
         System.out.println();
         System.out.println("==========================================End Response Body==========================================");
         System.out.println();
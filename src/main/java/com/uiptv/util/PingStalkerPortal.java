@@ -1,200 +1,177 @@
 package com.uiptv.util;
 
 import com.uiptv.ui.LogsUI;
+import org.json.JSONException;
+import org.json.JSONObject;
 
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static com.uiptv.util.FetchAPI.ServerType.PORTAL;
 import static com.uiptv.util.StringUtils.isBlank;
 import static com.uiptv.util.StringUtils.isNotBlank;
 import static com.uiptv.widget.UIptvAlert.showError;
+import static com.uiptv.widget.UIptvAlert.showMessage;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class PingStalkerPortal {
 
-    public static final String SPLIT_FUNCTION_SERVER_PARAMS = "this.get_server_params=function()";
-
-    public static String ping(final String url) {
-        try {
-            String pingUrl = !url.endsWith("/") ? url + "/" + "xpcom.common.js" : url + "xpcom.common.js";
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(pingUrl))
-                    .GET().build();
-
-            HttpResponse<String> response = HttpClient.newBuilder()
-                    .followRedirects(HttpClient.Redirect.ALWAYS)
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .build()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
-
-            //httpLog(url,request, response);
-            if (response.statusCode() == HttpURLConnection.HTTP_OK) {
-                return parsePortalApiServer((response.body() + " ").replace(" ", ""), url);
-            }
-        } catch (Exception ex) {
-            LogsUI.logError("Network Error: " + ex.getMessage(), ex);
-            System.out.print("Network Error: " + ex.getMessage());
+    private static final String[] CANDIDATE_LOADERS = {"/portal.php", "/load.php", "/stalker_portal/server/load.php"};
+    private static final Map<String, Discovery> discoveries = new ConcurrentHashMap<>();
+    private static final Duration discoveryTtl = Duration.ofHours(24);
+
+    /**
+     * Probes the well-known loaders and the ajax_loader parsed from xpcom.common.js at the same time and returns
+     * the first one that answers a handshake with a token. Winners are remembered per portal URL, so accounts
+     * imported in bulk for the same portal share one probe. When no candidate answers it returns the loader parsed
+     * from xpcom.common.js if that fetch has finished, or the default portal loader, without fetching it again.
+     */
+    public static String discover(final String url, final String macAddress) {
+        Discovery cached = discoveries.get(url);
+        if (cached != null && System.currentTimeMillis() - cached.discoveredAt < discoveryTtl.toMillis()) {
+            return cached.loader;
         }
-        return PORTAL.getLoader();
-    }
-
-    public static String parsePortalApiServer(String jsFileContents, String url) {
-        //this.ajax_loader=this.portal_protocol+'://'+this.portal_ip+'/portal.php';
-        String portal_api_server = "/c/portal.php";
+        CompletableFuture<String> parsedLoader = null;
+        CompletableFuture<String> winner = new CompletableFuture<>();
+        List<CompletableFuture<?>> probes = new ArrayList<>();
         try {
-            String serverUri = prepareServerUrl(jsFileContents, url);
-            if (isNotBlank(serverUri)) {
-                return serverUri;
+            URI uri = URI.create(url);
+            String root = uri.getScheme() + "://" + uri.getAuthority();
+            for (String loader : CANDIDATE_LOADERS) {
+                probes.add(CompletableFuture.runAsync(() -> probe(root + loader, url, macAddress, winner), HttpTransport.getExecutor()));
             }
-            String portal = "portal.php";
-            String load = "load.php";
-            if (jsFileContents.toLowerCase().contains(portal)) {
-                int i = jsFileContents.toLowerCase().indexOf(portal);
-                String delimiter = jsFileContents.toLowerCase().split(portal)[1].substring(0, 1);
-                int startingIndex = jsFileContents.toLowerCase().split(portal)[0].lastIndexOf(delimiter + "/");
-                portal_api_server = url + jsFileContents.substring(startingIndex + 1, i + (portal.length()));
-            } else if (jsFileContents.toLowerCase().contains(load)) {
-                int i = jsFileContents.toLowerCase().indexOf(load);
-                String delimiter = jsFileContents.toLowerCase().split(load)[1].substring(0, 1);
-                int startingIndex = jsFileContents.toLowerCase().split(load)[0].lastIndexOf(delimiter + "/");
-                portal_api_server = url + jsFileContents.substring(startingIndex + 1, i + (load.length()));
+            parsedLoader = CompletableFuture.supplyAsync(() -> ping(url), HttpTransport.getExecutor());
+            probes.add(parsedLoader.thenAcceptAsync(loader -> {
+                if (loader.startsWith("http")) probe(loader, url, macAddress, winner);
+            }, HttpTransport.getExecutor()));
+            CompletableFuture.allOf(probes.toArray(new CompletableFuture<?>[0])).whenComplete((v, e) -> winner.complete(null));
+            String loader = winner.get(HttpTransport.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            if (isNotBlank(loader)) {
+                discoveries.put(url, new Discovery(loader, System.currentTimeMillis()));
+                showMessage("Discovered portal loader " + loader + " for " + url);
+                return loader;
             }
-        } catch (Exception ignored) {
-            showError("Parse Error", ignored);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.out.println("Portal discovery failed for " + url + ": " + e.getMessage());
         }
-        return portal_api_server;
+        String parsed = parsedLoader != null ? parsedLoader.getNow(null) : null;
+        return parsed != null ? parsed : PORTAL.getLoader();
     }
 
-    private static String prepareServerUrl(String jsFileContents, String uri) {
-        //this.ajax_loader=this.portal_protocol+'://'+this.portal_ip+'/portal.php';
-        String pattern = "this.ajax_loader=";
-        String endsWithString = ";";
+    public static Long getDiscoveredAt(String url) {
+        Discovery discovery = discoveries.get(url);
+        return discovery == null ? null : discovery.discoveredAt;
+    }
+
+    private static void probe(String loader, String url, String macAddress, CompletableFuture<String> winner) {
+        if (winner.isDone()) return;
         try {
-            String[] functionSplitArray = jsFileContents.split(SPLIT_FUNCTION_SERVER_PARAMS);
-            if (functionSplitArray.length > 1) {
-                String[] patternArray = functionSplitArray[1].split(pattern);
-                while (patternArray.length > 1) {
-                    //making sure it's not commented out
-                    if (patternArray[0].endsWith("//") || patternArray[0].endsWith("/*") || patternArray[0].endsWith("*")) {
-                        patternArray = patternArray[1].split(pattern);
-                    } else break;
-                }
-                if (patternArray.length > 1 && patternArray[1].contains(endsWithString)) {
-                    String regex = getPattern(jsFileContents).replaceAll("^/+", "").replaceAll("/+$", "");
-                    return patternArray[1].substring(0, patternArray[1].indexOf(endsWithString))
-                            .replace("'", "")
-                            .replace("+", "")
-                            .replace(" ", "")
-                            .replace(";", "")
-                            .replace("this.portal_protocol", uri.replaceFirst(regex, getPortalProtocolParamNumber(jsFileContents, uri)))
-                            .replace("this.portal_ip", uri.replaceFirst(regex, getPortalIP(jsFileContents, uri)))
-                            .replace("this.portal_port", isBlank(getPortalPort(jsFileContents, uri)) ? "" : uri.replaceFirst(regex, getPortalPort(jsFileContents, uri)))
-                            .replace("this.portal_path", uri.replaceFirst(regex, getPortalPath(jsFileContents, uri)));
-                }
+            HttpRequest request = HttpTransport.newRequest(loader + "?type=stb&action=handshake&token=&JsHttpRequest=" + System.currentTimeMillis() + "-xml")
+                    .header("User-Agent", "Mozilla/5.0 (QtEmbedded; U; Linux; C) AppleWebKit/533.3 (KHTML, like Gecko) MAG200 stbapp ver: 2 rev: 250 Safari/533.3")
+                    .header("Referer", url + "index.html")
+                    .header("Cookie", "mac=" + URLEncoder.encode(isBlank(macAddress) ? "" : macAddress, UTF_8) + "; stb_lang=en;")
+                    .GET().build();
+            HttpResponse<InputStream> response = HttpTransport.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            String body = HttpCompression.readString(response);
+            if (response.statusCode() == HttpURLConnection.HTTP_OK && hasToken(body)) {
+                winner.complete(loader);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception ignored) {
         }
-        return "";
     }
 
-    private static String getPattern(String jsFileContents) {
-        //this.ajax_loader=this.portal_protocol+'://'+this.portal_ip+'/portal.php';
-        String apiServerURL;
-        String pattern = "varpattern=";
-        String endsWithString = ";";
+    /**
+     * A loader that merely mentions "token", in an error page or an empty handshake, is not a working portal.
+     */
+    private static boolean hasToken(String handshake) {
         try {
-            String[] functionSplitArray = jsFileContents.split(SPLIT_FUNCTION_SERVER_PARAMS);
-            if (functionSplitArray.length > 1) {
-                String[] patternArray = functionSplitArray[1].split(pattern);
-                if (patternArray.length > 1 && patternArray[1].contains(endsWithString)) {
-                    apiServerURL = patternArray[1].substring(0, patternArray[1].indexOf(endsWithString));
-                    return apiServerURL;
-                }
-            }
-        } catch (Exception ignored) {
+            JSONObject js = new JSONObject(handshake).optJSONObject("js");
+            return js != null && isNotBlank(js.optString("token"));
+        } catch (JSONException e) {
+            return false;
         }
-        return "";
     }
 
-    private static String getPortalProtocolParamNumber(String jsFileContents, String url) {
-        //this.ajax_loader=this.portal_protocol+'://'+this.portal_ip+'/portal.php';
-        String apiServerURL;
-        String pattern = "this.portal_protocol=";
-        String endsWithString = ";";
-        try {
-            String[] functionSplitArray = jsFileContents.split(SPLIT_FUNCTION_SERVER_PARAMS);
-            if (functionSplitArray.length > 1) {
-                String[] patternArray = functionSplitArray[1].split(pattern);
-                if (patternArray.length > 1 && patternArray[1].contains(endsWithString)) {
-                    apiServerURL = patternArray[1].substring(0, patternArray[1].indexOf(endsWithString));
-                    return apiServerURL.replace("document.URL.replace(pattern,", "").replace("\"", "").replace(")", "");
-                }
-            }
-        } catch (Exception ignored) {
+    private static class Discovery {
+        private final String loader;
+        private final long discoveredAt;
+
+        private Discovery(String loader, long discoveredAt) {
+            this.loader = loader;
+            this.discoveredAt = discoveredAt;
         }
-        return null;
     }
 
-    private static String getPortalIP(String jsFileContents, String url) {
-        //this.ajax_loader=this.portal_protocol+'://'+this.portal_ip+'/portal.php';
-        String apiServerURL;
-        String pattern = "this.portal_ip=";
-        String endsWithString = ";";
+    public static String ping(final String url) {
         try {
-            String[] functionSplitArray = jsFileContents.split(SPLIT_FUNCTION_SERVER_PARAMS);
-            if (functionSplitArray.length > 1) {
-                String[] patternArray = functionSplitArray[1].split(pattern);
-                if (patternArray.length > 1 && patternArray[1].contains(endsWithString)) {
-                    apiServerURL = patternArray[1].substring(0, patternArray[1].indexOf(endsWithString));
-                    return apiServerURL.replace("document.URL.replace(pattern,", "").replace("\"", "").replace(")", "");
-                }
+            String pingUrl = !url.endsWith("/") ? url + "/" + "xpcom.common.js" : url + "xpcom.common.js";
+            HttpRequest request = HttpTransport.newRequest(pingUrl)
+                    .GET().build();
+
+            HttpResponse<String> response = HttpTransport.send(request, HttpResponse.BodyHandlers.ofString());
+
+            //httpLog(url,request, response);
+            if (response.statusCode() == HttpURLConnection.HTTP_OK) {
+                return parsePortalApiServer(response.body(), url);
             }
-        } catch (Exception ignored) {
+        } catch (Exception ex) {
+            LogsUI.logError("Network Error: " + ex.getMessage(), ex);
+            System.out.print("Network Error: " + ex.getMessage());
         }
-        return null;
+        return PORTAL.getLoader();
     }
 
-    private static String getPortalPath(String jsFileContents, String url) {
+    public static String parsePortalApiServer(String jsFileContents, String url) {
         //this.ajax_loader=this.portal_protocol+'://'+this.portal_ip+'/portal.php';
-        String apiServerURL;
-        String pattern = "this.portal_path=";
-        String endsWithString = ";";
+        String portal_api_server = "/c/portal.php";
         try {
-            String[] functionSplitArray = jsFileContents.split(SPLIT_FUNCTION_SERVER_PARAMS);
-            if (functionSplitArray.length > 1) {
-                String[] patternArray = functionSplitArray[1].split(pattern);
-                if (patternArray.length > 1 && patternArray[1].contains(endsWithString)) {
-                    apiServerURL = patternArray[1].substring(0, patternArray[1].indexOf(endsWithString));
-                    return apiServerURL.replace("document.URL.replace(pattern,", "").replace("\"", "").replace(")", "");
-                }
+            PortalJsScanner js = PortalJsScanner.scan(jsFileContents);
+            String serverUri = prepareServerUrl(js, url);
+            if (isNotBlank(serverUri)) {
+                return serverUri;
+            }
+            String literal = js.getLoaderLiteral();
+            if (literal != null && literal.startsWith("http")) {
+                portal_api_server = literal;
+            } else if (literal != null && literal.contains("/")) {
+                portal_api_server = url + literal.substring(literal.indexOf('/'));
             }
         } catch (Exception ignored) {
+            showError("Parse Error", ignored);
         }
-        return null;
+        return portal_api_server;
     }
 
-    private static String getPortalPort(String jsFileContents, String url) {
-        //this.ajax_loader=this.portal_protocol+'://'+this.portal_ip+'/portal.php';
-        String apiServerURL;
-        String pattern = "this.portal_port=";
-        String endsWithString = ";";
+    private static String prepareServerUrl(PortalJsScanner js, String uri) {
         try {
-            String[] functionSplitArray = jsFileContents.split(SPLIT_FUNCTION_SERVER_PARAMS);
-            if (functionSplitArray.length > 1) {
-                String[] patternArray = functionSplitArray[1].split(pattern);
-                if (patternArray.length > 1 && patternArray[1].contains(endsWithString)) {
-                    apiServerURL = patternArray[1].substring(0, patternArray[1].indexOf(endsWithString));
-                    return apiServerURL.replace("document.URL.replace(pattern,", "").replace("\"", "").replace(")", "");
-                }
-            }
+            String regex = js.getPatternRegex();
+            if (js.getAjaxLoader() == null || isBlank(regex)) return "";
+            String port = js.getPortalPort();
+            return js.getAjaxLoader()
+                    .replace("'", "")
+                    .replace("\"", "")
+                    .replace("+", "")
+                    .replace("this.portal_protocol", uri.replaceFirst(regex, js.getPortalProtocol()))
+                    .replace("this.portal_ip", uri.replaceFirst(regex, js.getPortalIp()))
+                    .replace("this.portal_port", isBlank(port) ? "" : uri.replaceFirst(regex, port))
+                    .replace("this.portal_path", uri.replaceFirst(regex, js.getPortalPath()));
         } catch (Exception ignored) {
         }
-        return null;
+        return "";
     }
-
-
 }
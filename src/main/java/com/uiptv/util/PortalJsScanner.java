@@ -0,0 +1,156 @@
+package com.uiptv.util;
+
+import java.util.Locale;
+
+/**
+ * Single-pass scanner for a Stalker portal's xpcom.common.js. It walks the script once, skipping comments and
+ * keeping string and regex literals intact, and collects the get_server_params assignments
+ * (var pattern, this.portal_*, this.ajax_loader) together with the first string literal naming a loader.
+ */
+public class PortalJsScanner {
+    private static final String SERVER_PARAMS_FUNCTION = "this.get_server_params=function()";
+
+    private String pattern, portalProtocol, portalIp, portalPort, portalPath, ajaxLoader;
+    private String portalLiteral, loadLiteral;
+    private boolean inServerParams;
+
+    public static PortalJsScanner scan(CharSequence js) {
+        PortalJsScanner scanner = new PortalJsScanner();
+        scanner.run(js);
+        return scanner;
+    }
+
+    private void run(CharSequence js) {
+        StringBuilder statement = new StringBuilder();
+        int length = js.length();
+        for (int i = 0; i < length; i++) {
+            char c = js.charAt(i);
+            char next = i + 1 < length ? js.charAt(i + 1) : 0;
+            if (c == '/' && next == '/') {
+                while (i < length && js.charAt(i) != '\n') i++;
+            } else if (c == '/' && next == '*') {
+                i += 2;
+                while (i + 1 < length && !(js.charAt(i) == '*' && js.charAt(i + 1) == '/')) i++;
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int start = i + 1;
+                i = skipQuoted(js, i, c);
+                recordLiteral(js.subSequence(start, Math.min(i, length)).toString());
+                statement.append(js, start - 1, Math.min(i + 1, length));
+            } else if (c == '/' && startsRegex(statement)) {
+                int start = i;
+                i = skipRegex(js, i);
+                statement.append(js, start, Math.min(i + 1, length));
+            } else if (c == ';' || c == '{' || c == '}') {
+                endStatement(statement);
+            } else if (!Character.isWhitespace(c)) {
+                statement.append(c);
+            }
+        }
+        endStatement(statement);
+    }
+
+    private void endStatement(StringBuilder statement) {
+        if (statement.isEmpty()) return;
+        String s = statement.toString();
+        statement.setLength(0);
+        if (!inServerParams) {
+            inServerParams = s.endsWith(SERVER_PARAMS_FUNCTION);
+            return;
+        }
+        if (pattern == null && s.startsWith("varpattern=")) {
+            pattern = s.substring("varpattern=".length());
+        } else if (portalProtocol == null && s.startsWith("this.portal_protocol=")) {
+            portalProtocol = replacementOf(s, "this.portal_protocol=");
+        } else if (portalIp == null && s.startsWith("this.portal_ip=")) {
+            portalIp = replacementOf(s, "this.portal_ip=");
+        } else if (portalPort == null && s.startsWith("this.portal_port=")) {
+            portalPort = replacementOf(s, "this.portal_port=");
+        } else if (portalPath == null && s.startsWith("this.portal_path=")) {
+            portalPath = replacementOf(s, "this.portal_path=");
+        } else if (ajaxLoader == null && s.startsWith("this.ajax_loader=")) {
+            ajaxLoader = s.substring("this.ajax_loader=".length());
+        }
+    }
+
+    private void recordLiteral(String literal) {
+        String lower = literal.toLowerCase(Locale.ROOT);
+        if (portalLiteral == null && lower.contains("portal.php")) {
+            portalLiteral = literal.substring(0, lower.indexOf("portal.php") + "portal.php".length());
+        } else if (loadLiteral == null && lower.contains("load.php")) {
+            loadLiteral = literal.substring(0, lower.indexOf("load.php") + "load.php".length());
+        }
+    }
+
+    private static String replacementOf(String statement, String prefix) {
+        return statement.substring(prefix.length())
+                .replace("document.URL.replace(pattern,", "")
+                .replace("\"", "")
+                .replace("'", "")
+                .replace(")", "");
+    }
+
+    private static boolean startsRegex(StringBuilder statement) {
+        if (statement.isEmpty()) return true;
+        return "=(,:[!&|?".indexOf(statement.charAt(statement.length() - 1)) >= 0;
+    }
+
+    private static int skipQuoted(CharSequence js, int i, char quote) {
+        for (i++; i < js.length(); i++) {
+            char c = js.charAt(i);
+            if (c == '\\') i++;
+            else if (c == quote || c == '\n') return i;
+        }
+        return i;
+    }
+
+    private static int skipRegex(CharSequence js, int i) {
+        boolean inClass = false;
+        for (i++; i < js.length(); i++) {
+            char c = js.charAt(i);
+            if (c == '\\') i++;
+            else if (c == '[') inClass = true;
+            else if (c == ']') inClass = false;
+            else if (c == '/' && !inClass) break;
+            else if (c == '\n') return i;
+        }
+        while (i + 1 < js.length() && Character.isLetter(js.charAt(i + 1))) i++;
+        return i;
+    }
+
+    /**
+     * @return the pattern's regex body, without the surrounding slashes and flags
+     */
+    public String getPatternRegex() {
+        if (pattern == null) return null;
+        int end = pattern.lastIndexOf('/');
+        return pattern.startsWith("/") && end > 0 ? pattern.substring(1, end) : pattern;
+    }
+
+    public String getPortalProtocol() {
+        return portalProtocol;
+    }
+
+    public String getPortalIp() {
+        return portalIp;
+    }
+
+    public String getPortalPort() {
+        return portalPort;
+    }
+
+    public String getPortalPath() {
+        return portalPath;
+    }
+
+    public String getAjaxLoader() {
+        return ajaxLoader;
+    }
+
+    /**
+     * @return the first string literal mentioning portal.php, or else load.php, cut after the file name
+     */
+    public String getLoaderLiteral() {
+        return portalLiteral != null ? portalLiteral : loadLiteral;
+    }
+}
@@ -0,0 +1,129 @@
+package com.uiptv.util;
+
+import com.uiptv.widget.UIptvAlert;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-host request governor. A token bucket caps the request rate and an AIMD controller adapts how many
+ * requests may be in flight: the limit grows by one per window of healthy responses and is halved on
+ * errors, throttling (429/5xx) or latency spikes.
+ */
+public class PortalRateLimiter {
+    private static final Map<String, PortalRateLimiter> limiters = new ConcurrentHashMap<>();
+    private static final long LATENCY_SPIKE_FLOOR_MILLIS = 1000;
+    private static final double LATENCY_SPIKE_FACTOR = 3;
+    // tunable at launch with -Duiptv.http.ratePerSecond, -Duiptv.http.burst and -Duiptv.http.maxConcurrency
+    private static final double RATE_PER_SECOND = Math.max(1, Integer.getInteger("uiptv.http.ratePerSecond", 10));
+    private static final int BURST = Math.max(1, Integer.getInteger("uiptv.http.burst", 10));
+    private static final int MIN_LIMIT = 1;
+    private static final int MAX_LIMIT = Math.max(MIN_LIMIT, Integer.getInteger("uiptv.http.maxConcurrency", 32));
+    private static final int INITIAL_LIMIT = Math.min(4, MAX_LIMIT);
+
+    private final String host;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private double limit = INITIAL_LIMIT;
+    private double tokens = BURST;
+    private long lastRefill = System.nanoTime();
+    private double latencyEwmaMillis = -1;
+    private int inFlight;
+
+    private PortalRateLimiter(String host) {
+        this.host = host;
+    }
+
+    public static PortalRateLimiter forHost(String host) {
+        return limiters.computeIfAbsent(host, PortalRateLimiter::new);
+    }
+
+    public static Map<String, PortalRateLimiter> getLimiters() {
+        return new TreeMap<>(limiters);
+    }
+
+    /**
+     * Blocks until both a concurrency slot and a rate token are available.
+     *
+     * @return the start timestamp to hand back to {@link #release(long, int)}
+     */
+    public long acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                refill();
+                if (inFlight < currentLimit()) {
+                    if (tokens >= 1) {
+                        tokens -= 1;
+                        inFlight++;
+                        return System.nanoTime();
+                    }
+                    available.awaitNanos((long) ((1 - tokens) / RATE_PER_SECOND * TimeUnit.SECONDS.toNanos(1)) + 1);
+                } else {
+                    available.await();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param statusCode the HTTP status of the response, or a negative value when the request failed
+     */
+    public void release(long startNanos, int statusCode) {
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        lock.lock();
+        try {
+            inFlight--;
+            int before = currentLimit();
+            boolean throttled = statusCode < 0 || statusCode == 429 || statusCode >= 500;
+            boolean spike = latencyEwmaMillis > 0 && latencyMillis > LATENCY_SPIKE_FLOOR_MILLIS && latencyMillis > latencyEwmaMillis * LATENCY_SPIKE_FACTOR;
+            if (throttled || spike) {
+                limit = Math.max(MIN_LIMIT, limit / 2);
+            } else {
+                limit = Math.min(MAX_LIMIT, limit + 1 / limit);
+                latencyEwmaMillis = latencyEwmaMillis < 0 ? latencyMillis : latencyEwmaMillis * 0.8 + latencyMillis * 0.2;
+            }
+            // growth is routine, only a cut is worth a line in the log
+            if (currentLimit() < before) {
+                UIptvAlert.showMessage("Portal limit for " + host + " " + before + " -> " + currentLimit() + (throttled ? " (status " + statusCode + ")" : spike ? " (latency " + latencyMillis + "ms)" : ""));
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        return currentLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(BURST, tokens + (now - lastRefill) / (double) TimeUnit.SECONDS.toNanos(1) * RATE_PER_SECOND);
+        lastRefill = now;
+    }
+
+    @Override
+    public String toString() {
+        return "PortalRateLimiter{" +
+                "host='" + host + '\'' +
+                ", limit=" + getLimit() +
+                ", inFlight=" + inFlight +
+                ", latencyEwmaMillis=" + (long) latencyEwmaMillis +
+                '}';
+    }
+}
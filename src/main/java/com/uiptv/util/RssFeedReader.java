@@ -52,6 +52,10 @@ public class RssFeedReader {
     }
 
     public static List<RssItem> getItems(String url) throws Exception {
+        return getItems(url, true);
+    }
+
+    public static List<RssItem> getItems(String url, boolean compression) throws Exception {
         List<RssItem> items = new ArrayList<>();
 
         SyndFeedInput input = new SyndFeedInput();
@@ -59,13 +63,16 @@ public class RssFeedReader {
         if (url.startsWith("https")) {
             HttpsURLConnection connection = (HttpsURLConnection) new URL(url).openConnection();
             connection.setConnectTimeout(10000);
-            reader = (new InputStreamReader(connection.getInputStream()));
+            reader = (new InputStreamReader(HttpCache.openStream(connection, compression)));
         } else {
             HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
             connection.setConnectTimeout(10000);
-            reader = (new InputStreamReader(connection.getInputStream()));
+            reader = (new InputStreamReader(HttpCache.openStream(connection, compression)));
+        }
+        SyndFeed feed;
+        try (reader) {
+            feed = input.build(reader);
         }
-        SyndFeed feed = input.build(reader);
 
         for (SyndEntry entry : feed.getEntries()) {
             String link = entry.getLink();
@@ -2,9 +2,11 @@ package com.uiptv.util;
 
 import com.sun.net.httpserver.HttpExchange;
 import com.uiptv.api.JsonCompliant;
+import com.uiptv.model.Channel;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -55,6 +57,17 @@ public class ServerUtils {
         return params.get(key);
     }
 
+    /**
+     * Channel commands are stored URL-encoded; decodes cmd and its alternatives in place.
+     */
+    public static Channel decodeCommands(Channel channel) {
+        channel.setCmd(URLDecoder.decode(channel.getCmd(), StandardCharsets.UTF_8));
+        if (channel.getCmd_1() != null) channel.setCmd_1(URLDecoder.decode(channel.getCmd_1(), StandardCharsets.UTF_8));
+        if (channel.getCmd_2() != null) channel.setCmd_2(URLDecoder.decode(channel.getCmd_2(), StandardCharsets.UTF_8));
+        if (channel.getCmd_3() != null) channel.setCmd_3(URLDecoder.decode(channel.getCmd_3(), StandardCharsets.UTF_8));
+        return channel;
+    }
+
     public static void generateHtmlResponse(HttpExchange httpExchange, String response) throws IOException {
         generateResponse(httpExchange, response, CONTENT_TYPE_HTML, null);
     }
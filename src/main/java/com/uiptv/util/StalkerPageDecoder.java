@@ -0,0 +1,142 @@
+package com.uiptv.util;
+
+import com.uiptv.model.Account;
+import com.uiptv.model.Channel;
+import com.uiptv.model.Pagination;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.uiptv.model.Account.AccountAction.itv;
+import static com.uiptv.model.Account.AccountAction.series;
+import static com.uiptv.util.JsonPullParser.Token.*;
+import static com.uiptv.util.StringUtils.isBlank;
+import static com.uiptv.util.StringUtils.isNotBlank;
+
+/**
+ * Decodes a Stalker get_ordered_list response in a single streaming pass, producing the page's channels and
+ * its pagination metadata without building the response as a String or a JSON object tree.
+ */
+public class StalkerPageDecoder {
+
+    public static Page decode(Reader reader, Account account) throws IOException {
+        Page page = new Page();
+        try (JsonPullParser parser = new JsonPullParser(reader)) {
+            if (parser.next() != START_OBJECT) throw new IOException("Response is not a JSON object");
+            while (parser.next() == FIELD_NAME) {
+                String field = parser.getText();
+                parser.next();
+                if ("js".equals(field) && parser.getToken() == START_OBJECT) {
+                    decodeJs(parser, account, page);
+                } else {
+                    parser.skipValue();
+                }
+            }
+        }
+        if (page.pagination == null) throw new IOException("Response has no js object");
+        return page;
+    }
+
+    private static void decodeJs(JsonPullParser parser, Account account, Page page) throws IOException {
+        int totalItems = -1, maxPageItems = -1;
+        while (parser.next() == FIELD_NAME) {
+            String field = parser.getText();
+            parser.next();
+            switch (field) {
+                case "total_items" -> totalItems = toInt(parser.getText());
+                case "max_page_items" -> maxPageItems = toInt(parser.getText());
+                case "data" -> {
+                    if (parser.getToken() == START_ARRAY) {
+                        while (parser.next() == START_OBJECT) {
+                            addChannels(page.channels, decodeItem(parser), account);
+                        }
+                    } else {
+                        parser.skipValue();
+                    }
+                }
+                default -> parser.skipValue();
+            }
+        }
+        page.pagination = new Pagination(totalItems, maxPageItems);
+    }
+
+    private static Map<String, Object> decodeItem(JsonPullParser parser) throws IOException {
+        Map<String, Object> item = new HashMap<>();
+        while (parser.next() == FIELD_NAME) {
+            String field = parser.getText();
+            parser.next();
+            if (parser.isScalar()) {
+                item.put(field, parser.getText());
+            } else if ("series".equals(field) && parser.getToken() == START_ARRAY) {
+                List<String> episodes = new ArrayList<>();
+                while (parser.next() != END_ARRAY) {
+                    if (parser.isScalar()) episodes.add(parser.getText());
+                    else parser.skipValue();
+                }
+                item.put(field, episodes);
+            } else {
+                parser.skipValue();
+            }
+        }
+        return item;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addChannels(List<Channel> channels, Map<String, Object> item, Account account) {
+        if (account.getAction() == itv) {
+            channels.add(new Channel(string(item, "id"), string(item, "name"), string(item, "number"), string(item, "containerExtension"), string(item, "cmd"), string(item, "cmd_1"), string(item, "cmd_2"), string(item, "cmd_3"), string(item, "logo"), integer(item, "censored"), integer(item, "status"), integer(item, "hd")));
+            return;
+        }
+        String name = string(item, "name");
+        if (isBlank(name)) {
+            name = string(item, "o_name");
+        }
+        String number = string(item, "id");
+        String containerExtension = string(item, "containerExtension");
+        String cmd = string(item, "cmd");
+        if (account.getAction() == series && isNotBlank(cmd)) {
+            Object episodes = item.get("series");
+            if (episodes instanceof List) {
+                for (String episode : (List<String>) episodes) {
+                    channels.add(new Channel(episode, name + " - Episode " + episode, number, containerExtension, cmd, null, null, null, string(item, "screenshot_uri"), integer(item, "censored"), integer(item, "status"), integer(item, "hd")));
+                }
+            }
+        } else {
+            channels.add(new Channel(string(item, "id"), name, number, containerExtension, cmd, null, null, null, string(item, "screenshot_uri"), integer(item, "censored"), integer(item, "status"), integer(item, "hd")));
+        }
+    }
+
+    private static String string(Map<String, Object> item, String key) {
+        Object value = item.get(key);
+        return value instanceof String ? (String) value : StringUtils.EMPTY;
+    }
+
+    private static int integer(Map<String, Object> item, String key) {
+        return toInt(string(item, key));
+    }
+
+    private static int toInt(String value) {
+        try {
+            return (int) Double.parseDouble(value);
+        } catch (Exception ignored) {
+            return -1;
+        }
+    }
+
+    public static class Page {
+        private Pagination pagination;
+        private final List<Channel> channels = new ArrayList<>();
+
+        public Pagination getPagination() {
+            return pagination;
+        }
+
+        public List<Channel> getChannels() {
+            return channels;
+        }
+    }
+}
@@ -34,8 +34,11 @@ public class StalkerPortalTextParserService {
                     Account account = AccountService.getInstance().getByName(name);
                     boolean accountExist = collateAccounts && account != null && accountType.equals(account.getType());
                     if (accountExist) {
-                        AccountService.getInstance().save(new Account(name, username, password, m3uPlayLIstUrl, account.getMacAddress(), account.getMacAddressList(), account.getSerialNumber(), account.getDeviceId1(), account.getDeviceId2(), account.getSignature(),
-                                accountType, account.getEpg(), m3uPlayLIstUrl, pauseCaching, account.isPinToTop()));
+                        Account collatedAccount = new Account(name, username, password, m3uPlayLIstUrl, account.getMacAddress(), account.getMacAddressList(), account.getSerialNumber(), account.getDeviceId1(), account.getDeviceId2(), account.getSignature(),
+                                accountType, account.getEpg(), m3uPlayLIstUrl, pauseCaching, account.isPinToTop());
+                        collatedAccount.setPageFetchConcurrency(account.getPageFetchConcurrency());
+                        collatedAccount.setDisableCompression(account.isDisableCompression());
+                        AccountService.getInstance().save(collatedAccount);
                     } else {
                         String uniqueName = collateAccounts ? name : getUniqueNameFromUrl(m3uPlayLIstUrl);
                         AccountService.getInstance().save(new Account(uniqueName, username, password, m3uPlayLIstUrl, null, null, null, null, null, null,
@@ -60,8 +63,11 @@ public class StalkerPortalTextParserService {
                     Account account = AccountService.getInstance().getByName(name);
                     boolean accountExist = collateAccounts && account != null;
                     if (accountExist) {
-                        AccountService.getInstance().save(new Account(name, account.getUsername(), account.getPassword(), currentUrl, account.getMacAddress(), account.getMacAddressList() + "," + potentialUrlOrMac, account.getSerialNumber(), account.getDeviceId1(), account.getDeviceId2(), account.getSignature(),
-                                AccountType.STALKER_PORTAL, account.getEpg(), account.getM3u8Path(), pauseCaching, account.isPinToTop()));
+                        Account collatedAccount = new Account(name, account.getUsername(), account.getPassword(), currentUrl, account.getMacAddress(), account.getMacAddressList() + "," + potentialUrlOrMac, account.getSerialNumber(), account.getDeviceId1(), account.getDeviceId2(), account.getSignature(),
+                                AccountType.STALKER_PORTAL, account.getEpg(), account.getM3u8Path(), pauseCaching, account.isPinToTop());
+                        collatedAccount.setPageFetchConcurrency(account.getPageFetchConcurrency());
+                        collatedAccount.setDisableCompression(account.isDisableCompression());
+                        AccountService.getInstance().save(collatedAccount);
                     } else {
                         String uniqueName = collateAccounts ? name : getUniqueNameFromUrl(currentUrl);
                         AccountService.getInstance().save(new Account(uniqueName, null, null, currentUrl, potentialUrlOrMac, potentialUrlOrMac, null, null, null, null,
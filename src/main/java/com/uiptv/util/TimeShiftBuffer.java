@@ -0,0 +1,157 @@
+package com.uiptv.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Fixed-size ring of a live stream's bytes in a memory-mapped file. The writer appends chunks at the head and
+ * overwrites the oldest data once the ring is full; readers address the stream by absolute offset and are sent
+ * the bytes from the file with {@link FileChannel#transferTo}. A small fixed index of (time, offset)
+ * pairs, one per appended chunk, maps "N seconds behind live" to an offset. Neither grows with stream length.
+ */
+public class TimeShiftBuffer implements Closeable {
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer ring;
+    private final int capacity;
+    private final long[] indexTimes, indexOffsets;
+    private int indexHead, indexSize;
+    private volatile long written;
+    private volatile boolean closed;
+
+    /**
+     * @param capacity  ring size in bytes, at most 2GB as a single mapping
+     * @param chunkSize typical append size, used to size the time index so it covers the whole ring
+     */
+    public TimeShiftBuffer(Path file, int capacity, int chunkSize) throws IOException {
+        Files.createDirectories(file.getParent());
+        this.file = file;
+        this.capacity = capacity;
+        // not truncated: a ring whose delete failed while still mapped (Windows) is simply overwritten in place
+        this.channel = FileChannel.open(file, CREATE, READ, WRITE);
+        this.ring = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        int indexLength = capacity / Math.max(1, chunkSize) + 2;
+        this.indexTimes = new long[indexLength];
+        this.indexOffsets = new long[indexLength];
+    }
+
+    public synchronized void append(byte[] chunk) {
+        if (closed) return;
+        int position = (int) (written % capacity);
+        int first = Math.min(chunk.length, capacity - position);
+        ring.put(position, chunk, 0, first);
+        if (first < chunk.length) ring.put(0, chunk, first, chunk.length - first);
+        indexTimes[indexHead] = System.currentTimeMillis();
+        indexOffsets[indexHead] = written;
+        indexHead = (indexHead + 1) % indexTimes.length;
+        indexSize = Math.min(indexSize + 1, indexTimes.length);
+        written += chunk.length;
+        notifyAll();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return total bytes appended since the buffer was created
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * @return the absolute offset of the oldest byte still held in the ring
+     */
+    public long oldest() {
+        return Math.max(0, written - capacity);
+    }
+
+    /**
+     * @return the offset of the first chunk received at least the given time ago that is still in the ring,
+     * or the oldest chunk still held when the ring does not reach that far back
+     */
+    public synchronized long offsetBehind(long millis) {
+        long target = System.currentTimeMillis() - millis;
+        long oldest = oldest();
+        long offset = written;
+        for (int i = 1; i <= indexSize; i++) {
+            int slot = Math.floorMod(indexHead - i, indexTimes.length);
+            if (indexOffsets[slot] < oldest) break;
+            offset = indexOffsets[slot];
+            if (indexTimes[slot] <= target) break;
+        }
+        return offset;
+    }
+
+    /**
+     * @return the offset of the first chunk starting at or after the given offset, or the write offset when no
+     * chunk does yet
+     */
+    public synchronized long chunkAtOrAfter(long offset) {
+        long found = written;
+        for (int i = 1; i <= indexSize; i++) {
+            int slot = Math.floorMod(indexHead - i, indexTimes.length);
+            if (indexOffsets[slot] < offset) break;
+            found = indexOffsets[slot];
+        }
+        return found;
+    }
+
+    /**
+     * Blocks until data past the given offset is available, the buffer is closed, or the timeout passes.
+     *
+     * @return the current write offset
+     */
+    public synchronized long awaitData(long offset, long timeoutMillis) throws InterruptedException {
+        if (written <= offset && !closed) wait(timeoutMillis);
+        return written;
+    }
+
+    /**
+     * Sends up to maxBytes starting at the absolute offset to the target. The kernel copies file to channel
+     * directly only when the target is a file or socket channel; any other target, such as a stream wrapped by
+     * {@link java.nio.channels.Channels#newChannel}, is fed through a heap buffer. Nothing is locked while
+     * sending, so the writer may overwrite the range meanwhile; callers keep the range small and clear of the
+     * oldest data, and the result tells them when the writer got there anyway.
+     *
+     * @return the number of bytes sent, or -1 when the range had been or was being overwritten, in which case
+     * whatever was sent is not to be trusted
+     */
+    public long transferTo(long offset, long maxBytes, WritableByteChannel target) throws IOException {
+        if (offset < oldest()) return -1;
+        int position = (int) (offset % capacity);
+        long count = Math.min(maxBytes, capacity - position);
+        long sent = 0;
+        while (sent < count) {
+            long n = channel.transferTo(position + sent, count - sent, target);
+            if (n <= 0) break;
+            sent += n;
+        }
+        return offset < oldest() ? -1 : sent;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        notifyAll();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("Unable to remove time-shift file " + file + ": " + e.getMessage());
+        }
+    }
+}
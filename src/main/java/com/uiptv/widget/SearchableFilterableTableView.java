@@ -1,5 +1,6 @@
 package com.uiptv.widget;
 
+import com.uiptv.model.AccountHealth;
 import com.uiptv.ui.AccountListUI;
 import com.uiptv.util.AccountType;
 import javafx.beans.binding.Bindings;
@@ -7,6 +8,8 @@ import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
@@ -19,10 +22,11 @@ import java.util.function.Predicate;
 import static com.uiptv.ui.RootApplication.GUIDED_MAX_WIDTH_PIXELS;
 import static com.uiptv.util.AccountType.getAccountTypeByDisplay;
 
-public class SearchableFilterableTableView extends TableView {
+public class SearchableFilterableTableView extends TableView<AccountListUI.AccountItem> {
     public static final String ALL = "All";
     private final UIptvText textField = new UIptvText("search" + new Date().getTime(), "Search", 10);
-    private final ComboBox comboBox = new ComboBox();
+    private final ComboBox<String> comboBox = new ComboBox<>();
+    private final CheckBox hideDown = new CheckBox("Hide down");
 
     public SearchableFilterableTableView() {
         this.setPrefWidth((double) GUIDED_MAX_WIDTH_PIXELS / 3);
@@ -41,28 +45,39 @@ public class SearchableFilterableTableView extends TableView {
         return textField;
     }
 
-    public ComboBox getComboBox() {
+    public ComboBox<String> getComboBox() {
         return comboBox;
     }
 
+    public CheckBox getHideDown() {
+        return hideDown;
+    }
+
     public <T> void filterByAccountType() {
 
 
         ObjectProperty<Predicate<AccountListUI.AccountItem>> textFilter = new SimpleObjectProperty<>();
         ObjectProperty<Predicate<AccountListUI.AccountItem>> comboFilter = new SimpleObjectProperty<>();
+        ObjectProperty<Predicate<AccountListUI.AccountItem>> healthFilter = new SimpleObjectProperty<>();
 
         textFilter.bind(Bindings.createObjectBinding(() -> accountItem -> accountItem.getAccountName().toLowerCase().contains(textField.getText().toLowerCase()),
                 textField.textProperty()));
 
 
-        comboFilter.bind(Bindings.createObjectBinding(() -> accountItem -> comboBox.getValue().toString().equalsIgnoreCase(ALL) || accountItem.getAccountType().equalsIgnoreCase(getAccountTypeByDisplay(comboBox.getValue().toString()).name()),
+        comboFilter.bind(Bindings.createObjectBinding(() -> accountItem -> comboBox.getValue().equalsIgnoreCase(ALL) || accountItem.getAccountType().equalsIgnoreCase(getAccountTypeByDisplay(comboBox.getValue()).name()),
                 comboBox.valueProperty()));
 
+        healthFilter.bind(Bindings.createObjectBinding(() -> accountItem -> !hideDown.isSelected() || accountItem.getAccountHealth() == null || accountItem.getAccountHealth().getStatus() != AccountHealth.Status.DOWN,
+                hideDown.selectedProperty()));
+
         FilteredList<AccountListUI.AccountItem> filteredItems = new FilteredList<>(FXCollections.observableList(getItems()));
-        setItems(filteredItems);
+        // a filtered list cannot be sorted in place, so column sorting goes through a sorted view of it
+        SortedList<AccountListUI.AccountItem> sortedItems = new SortedList<>(filteredItems);
+        sortedItems.comparatorProperty().bind(comparatorProperty());
+        setItems(sortedItems);
 
         filteredItems.predicateProperty().bind(Bindings.createObjectBinding(
-                () -> textFilter.get().and(comboFilter.get()),
-                textFilter, comboFilter));
+                () -> textFilter.get().and(comboFilter.get()).and(healthFilter.get()),
+                textFilter, comboFilter, healthFilter));
     }
 }